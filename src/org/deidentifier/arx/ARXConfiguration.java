@@ -27,6 +27,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.deidentifier.arx.algorithm.FLASHListener;
+import org.deidentifier.arx.algorithm.FLASHWarmStart;
 import org.deidentifier.arx.criteria.DDisclosurePrivacy;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
@@ -40,7 +42,9 @@ import org.deidentifier.arx.criteria.ProfitabilityProsecutor;
 import org.deidentifier.arx.criteria.ProfitabilityProsecutorNoAttack;
 import org.deidentifier.arx.criteria.SampleBasedCriterion;
 import org.deidentifier.arx.criteria.TCloseness;
+import org.deidentifier.arx.framework.check.TransformationCache;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataManagerCache;
 import org.deidentifier.arx.metric.Metric;
 import org.deidentifier.arx.metric.MetricConfiguration;
 
@@ -187,6 +191,63 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getSnapshotLength();
         }
 
+        /**
+         * Returns the data manager with which the configuration has been initialized
+         * @return
+         */
+        public DataManager getDataManager() {
+            return config.getDataManager();
+        }
+
+        /**
+         * Returns a copy of the configuration with new instances of all privacy models and of the
+         * quality model, which have been initialized with the same data manager
+         * @return
+         */
+        public ARXConfigurationInternal getInstanceForWorker() {
+            return config.getInstanceForWorker().getInternalConfiguration();
+        }
+
+        /**
+         * Returns the number of threads used for checking transformations
+         * @return
+         */
+        public int getNumberOfThreads() {
+            return config.getNumberOfThreads();
+        }
+
+        /**
+         * Returns the time limit for the optimal search in milliseconds
+         * @return
+         */
+        public int getOptimalSearchTimeLimit() {
+            return config.getOptimalSearchTimeLimit();
+        }
+
+        /**
+         * Returns the listener for the optimal search, if any
+         * @return
+         */
+        public FLASHListener getSearchListener() {
+            return config.getSearchListener();
+        }
+
+        /**
+         * Returns the file to which checks of the optimal search are traced, if any
+         * @return
+         */
+        public String getSearchTraceFile() {
+            return config.getSearchTraceFile();
+        }
+
+        /**
+         * Returns the state for warm-starting the optimal search, if any
+         * @return
+         */
+        public FLASHWarmStart getWarmStart() {
+            return config.getWarmStart();
+        }
+
         /**
          * Returns the data subset, if any
          * @return
@@ -204,6 +265,30 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getSuppressedAttributeTypes();
         }
 
+        /**
+         * Returns whether branch and bound is used instead of FLASH for profitability models
+         * @return
+         */
+        public boolean isBranchAndBoundEnabled() {
+            return config.isBranchAndBoundEnabled();
+        }
+
+        /**
+         * Returns whether the entropy-based information loss is evaluated with simplified expressions
+         * @return
+         */
+        public boolean isExpressionSimplificationEnabled() {
+            return config.isExpressionSimplificationEnabled();
+        }
+
+        /**
+         * Returns whether transformations are pruned based on lower bounds of information loss
+         * @return
+         */
+        public boolean isLowerBoundPruningEnabled() {
+            return config.isLowerBoundPruningEnabled();
+        }
+
         /**
          * Is practical monotonicity assumed.
          *
@@ -213,6 +298,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.isPracticalMonotonicity();
         }
 
+        /**
+         * Returns whether the binary phase of FLASH uses a priority queue of primitive values
+         * @return
+         */
+        public boolean isPrimitivePriorityQueueEnabled() {
+            return config.isPrimitivePriorityQueueEnabled();
+        }
+
         /**
          * Returns whether suppression is applied to the output of anonymous as 
          * well as non-anonymous transformations. If this flag is set to true, 
@@ -371,9 +464,48 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The heuristic algorithm will terminate after the given time limit */
     private Integer                            heuristicSearchTimeLimit                         = 30000;
 
+    /** The optimal search algorithm will terminate after the given time limit */
+    private Integer                            optimalSearchTimeLimit                           = Integer.MAX_VALUE;
+
+    /** Listener for the optimal search */
+    private transient FLASHListener            searchListener                                   = null;
+
+    /** File to which checks of the optimal search are traced */
+    private String                             searchTraceFile                                  = null;
+
+    /** State for warm-starting the optimal search */
+    private transient FLASHWarmStart           warmStart                                        = null;
+
+    /** Cache shared between anonymizations of the same data */
+    private transient TransformationCache      transformationCache                              = null;
+
+    /** Cache of structures derived from the data, shared between anonymizations of the same data */
+    private transient DataManagerCache         dataManagerCache                                 = null;
+
     /** Cost/benefit configuration */
     private ARXCostBenefitConfiguration        costBenefitConfiguration                         = ARXCostBenefitConfiguration.create();
 
+    /** The number of threads used for checking transformations */
+    private Integer                            numberOfThreads                                  = 1;
+
+    /** The number of classes above which quality models are evaluated in parallel */
+    private Integer                            parallelEvaluationThreshold                      = 100000;
+
+    /** Should transformations be pruned based on lower bounds of information loss? */
+    private Boolean                            lowerBoundPruningEnabled                         = true;
+
+    /** Should the entropy-based information loss be evaluated with simplified expressions? */
+    private Boolean                            expressionSimplificationEnabled                  = true;
+
+    /** Should the binary phase of FLASH use a priority queue of primitive values? */
+    private Boolean                            primitivePriorityQueueEnabled                    = true;
+
+    /** Should branch and bound be used instead of FLASH for profitability models? */
+    private Boolean                            branchAndBoundEnabled                            = true;
+
+    /** The data manager with which this configuration has been initialized */
+    private transient DataManager              manager                                          = null;
+
     /**
      * Creates a new configuration without tuple suppression.
      */
@@ -511,7 +643,19 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.heuristicSearchEnabled = this.heuristicSearchEnabled;
         result.heuristicSearchThreshold = this.heuristicSearchThreshold;
         result.heuristicSearchTimeLimit = this.heuristicSearchTimeLimit;
+        result.optimalSearchTimeLimit = this.optimalSearchTimeLimit;
+        result.searchListener = this.searchListener;
+        result.searchTraceFile = this.searchTraceFile;
+        result.warmStart = this.warmStart;
+        result.transformationCache = this.transformationCache;
+        result.dataManagerCache = this.dataManagerCache;
         result.utilityBasedMicroaggregation = this.utilityBasedMicroaggregation;
+        result.numberOfThreads = this.numberOfThreads;
+        result.parallelEvaluationThreshold = this.parallelEvaluationThreshold;
+        result.lowerBoundPruningEnabled = this.lowerBoundPruningEnabled;
+        result.expressionSimplificationEnabled = this.expressionSimplificationEnabled;
+        result.primitivePriorityQueueEnabled = this.primitivePriorityQueueEnabled;
+        result.branchAndBoundEnabled = this.branchAndBoundEnabled;
         result.costBenefitConfiguration = this.getCostBenefitConfiguration().clone();
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
@@ -624,6 +768,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
     public <T extends PrivacyCriterion> T getCriterion(Class<T> clazz) {
         return this.getPrivacyModel(clazz);
     }
+
+    /**
+     * Returns the cache of structures derived from the data, null if there is none
+     * @return
+     */
+    public DataManagerCache getDataManagerCache() {
+        return this.dataManagerCache;
+    }
     
     /**
      * When the size of the solution space exceeds the returned number of transformations,
@@ -659,6 +811,42 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return relMaxOutliers;
     }
     
+    /**
+     * Returns the number of threads that are used for checking transformations
+     * in parallel. The default is 1, i.e. a sequential search.
+     * @return
+     */
+    public int getNumberOfThreads() {
+        if (this.numberOfThreads == null) {
+            this.numberOfThreads = 1;
+        }
+        return this.numberOfThreads;
+    }
+
+    /**
+     * Returns the number of equivalence classes above which quality models are evaluated in parallel.
+     * The default is 100,000.
+     * @return
+     */
+    public int getParallelEvaluationThreshold() {
+        if (this.parallelEvaluationThreshold == null) {
+            this.parallelEvaluationThreshold = 100000;
+        }
+        return this.parallelEvaluationThreshold;
+    }
+
+    /**
+     * Returns the time limit for the optimal search algorithm in milliseconds. The default is
+     * Integer.MAX_VALUE, i.e. the solution space is searched exhaustively.
+     * @return
+     */
+    public int getOptimalSearchTimeLimit() {
+        if (this.optimalSearchTimeLimit == null) {
+            this.optimalSearchTimeLimit = Integer.MAX_VALUE;
+        }
+        return this.optimalSearchTimeLimit;
+    }
+
     /**
      * Returns the quality model to be used for optimizing output data.
      * This method is deprecated. Please use getQualityModel() instead.
@@ -819,7 +1007,39 @@ public class ARXConfiguration implements Serializable, Cloneable {
         }
         return risk;
     }
+
+    /**
+     * Returns the listener for the optimal search algorithm, null if there is none
+     * @return
+     */
+    public FLASHListener getSearchListener() {
+        return this.searchListener;
+    }
+    
+    /**
+     * Returns the file to which checks of the optimal search algorithm are traced, null if there is none
+     * @return
+     */
+    public String getSearchTraceFile() {
+        return this.searchTraceFile;
+    }
     
+    /**
+     * Returns the cache shared between anonymizations of the same data, null if there is none
+     * @return
+     */
+    public TransformationCache getTransformationCache() {
+        return this.transformationCache;
+    }
+
+    /**
+     * Returns the state for warm-starting the optimal search algorithm, null if there is none
+     * @return
+     */
+    public FLASHWarmStart getWarmStart() {
+        return this.warmStart;
+    }
+
     /**
      * Returns whether values of the given attribute type will be replaced by the suppression 
      * string in suppressed tuples.
@@ -835,6 +1055,32 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return (suppressedAttributeTypes & (1 << type.getType())) != 0;
     }
     
+    /**
+     * Returns whether branch and bound is used instead of FLASH, if all privacy models are
+     * profitability models. The default is true.
+     * @return
+     */
+    public boolean isBranchAndBoundEnabled() {
+        // Ensure backwards compatibility
+        if (this.branchAndBoundEnabled == null) {
+            this.branchAndBoundEnabled = true;
+        }
+        return this.branchAndBoundEnabled;
+    }
+
+    /**
+     * Returns whether the entropy-based information loss is evaluated with simplified expressions.
+     * The default is true.
+     * @return
+     */
+    public boolean isExpressionSimplificationEnabled() {
+        // Ensure backwards compatibility
+        if (this.expressionSimplificationEnabled == null) {
+            this.expressionSimplificationEnabled = true;
+        }
+        return this.expressionSimplificationEnabled;
+    }
+
     /**
      * Returns whether ARX will use a heuristic search strategy. The default is false.
      * @return
@@ -843,6 +1089,19 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.heuristicSearchEnabled;
     }
     
+    /**
+     * Returns whether transformations are pruned based on lower bounds of information loss.
+     * The default is true.
+     * @return
+     */
+    public boolean isLowerBoundPruningEnabled() {
+        // Ensure backwards compatibility
+        if (this.lowerBoundPruningEnabled == null) {
+            this.lowerBoundPruningEnabled = true;
+        }
+        return this.lowerBoundPruningEnabled;
+    }
+
     /**
      * Is practical monotonicity assumed.
      *
@@ -851,6 +1110,19 @@ public class ARXConfiguration implements Serializable, Cloneable {
     public boolean isPracticalMonotonicity() {
         return practicalMonotonicity;
     }
+
+    /**
+     * Returns whether the binary phase of FLASH uses a priority queue of primitive values.
+     * The default is true.
+     * @return
+     */
+    public boolean isPrimitivePriorityQueueEnabled() {
+        // Ensure backwards compatibility
+        if (this.primitivePriorityQueueEnabled == null) {
+            this.primitivePriorityQueueEnabled = true;
+        }
+        return this.primitivePriorityQueueEnabled;
+    }
     
     /**
      * Returns whether suppression is applied to the output of anonymous as well as non-anonymous transformations. If
@@ -961,6 +1233,36 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this;
     }
 
+    /**
+     * Sets whether branch and bound is used instead of FLASH, if all privacy models are profitability
+     * models, pruning based on lower bounds is enabled and practical monotonicity is not assumed. Branch
+     * and bound respects the time limit and the listener of the optimal search, but it does not support
+     * warm starts and checks transformations sequentially. The default is true.
+     * @param enabled
+     */
+    public void setBranchAndBoundEnabled(boolean enabled) {
+        this.branchAndBoundEnabled = enabled;
+    }
+
+    /**
+     * Sets a cache that is shared between anonymizations of the same data, one after another or
+     * concurrently. Immutable structures derived from the data, such as domain shares, are then
+     * only built by the first anonymization. The cache is not serialized.
+     * @param cache
+     */
+    public void setDataManagerCache(DataManagerCache cache) {
+        this.dataManagerCache = cache;
+    }
+
+    /**
+     * Sets whether the entropy-based information loss is evaluated with simplified expressions.
+     * The default is true.
+     * @param enabled
+     */
+    public void setExpressionSimplificationEnabled(boolean enabled) {
+        this.expressionSimplificationEnabled = enabled;
+    }
+
     /**
      * Sets whether ARX will use a heuristic search strategy. The default is false.
      * @param heuristicSearchEnabled
@@ -991,6 +1293,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchTimeLimit = timeInMillis;
     }
 
+    /**
+     * Sets whether transformations are pruned based on lower bounds of information loss.
+     * The default is true.
+     * @param enabled
+     */
+    public void setLowerBoundPruningEnabled(boolean enabled) {
+        this.lowerBoundPruningEnabled = enabled;
+    }
+
     /**
      * Allows for a certain percentage of outliers and thus
      * triggers tuple suppression.
@@ -1013,6 +1324,39 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.setQualityModel(model);
     }
     
+    /**
+     * Sets the number of threads that are used for checking transformations in parallel.
+     * With more than one thread, FLASH checks independent transformations in advance on
+     * a pool of node checkers, each of which holds its own copy of the data buffers.
+     * The result is identical to the sequential search. The default is 1.
+     * @param threads
+     */
+    public void setNumberOfThreads(int threads) {
+        if (threads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numberOfThreads = threads;
+    }
+
+    /**
+     * Sets the number of equivalence classes above which quality models are evaluated in parallel
+     * on a fork-join pool. The result is identical to the sequential evaluation. Set to
+     * Integer.MAX_VALUE to disable parallel evaluation. The default is 100,000.
+     * @param threshold
+     */
+    public void setParallelEvaluationThreshold(int threshold) {
+        if (threshold <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.parallelEvaluationThreshold = threshold;
+    }
+
+    /**
+     * The optimal search algorithm will terminate after the given number of milliseconds and
+     * return the best transformation found so far. The default is Integer.MAX_VALUE.
+     * @param timeInMillis
+     */
+    public void setOptimalSearchTimeLimit(int timeInMillis) {
+        if (timeInMillis <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.optimalSearchTimeLimit = timeInMillis;
+    }
+
     /**
      * Set, if practical monotonicity assumed.
      *
@@ -1022,6 +1366,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.practicalMonotonicity = assumeMonotonicity;
     }
 
+    /**
+     * Sets whether the binary phase of FLASH uses a priority queue of primitive values.
+     * The default is true.
+     * @param enabled
+     */
+    public void setPrimitivePriorityQueueEnabled(boolean enabled) {
+        this.primitivePriorityQueueEnabled = enabled;
+    }
+
     /**
      * Sets the quality model to be used for optimizing output data.
      *
@@ -1032,6 +1385,24 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.metric = model;
     }
     
+    /**
+     * Sets a listener that is informed about improved optima found by the optimal search
+     * algorithm and that may cancel the search. The listener is not serialized.
+     * @param listener
+     */
+    public void setSearchListener(FLASHListener listener) {
+        this.searchListener = listener;
+    }
+
+    /**
+     * Sets a file to which every check performed by the optimal search algorithm is traced,
+     * including the order of checks and their latencies. Set to null to disable tracing.
+     * @param file
+     */
+    public void setSearchTraceFile(String file) {
+        this.searchTraceFile = file;
+    }
+
     /**
      * Sets whether suppression is applied to the output of anonymous as well as non-anonymous transformations. If
      * this flag is set to <code>true</code>, suppression will be applied to the output of non-anonymous 
@@ -1057,6 +1428,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchForSampleBasedCriteria = value;
     }
 
+    /**
+     * Sets a cache that is shared between anonymizations of the same data, e.g. with different
+     * privacy models. Quality models may store aggregates over the equivalence classes induced
+     * by transformations in the cache, which allows deriving bounds for transformations that
+     * have not yet been checked. The cache is not serialized.
+     * @param cache
+     */
+    public void setTransformationCache(TransformationCache cache) {
+        this.transformationCache = cache;
+    }
+
     /**
      * Sets whether the impact of microaggregation on data utility should be considered 
      * @return
@@ -1075,6 +1457,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.utilityBasedMicroaggregationUseMeanSquaredError = useMSE;
     }
 
+    /**
+     * Sets the state for warm-starting the optimal search algorithm. If the same instance is passed
+     * to subsequent anonymizations of the same data, the optimum of the previous run is checked first.
+     * If several transformations have optimal information loss, the result may differ from a run
+     * without warm start, see {@link FLASHWarmStart}. The state is not serialized.
+     * @param warmStart
+     */
+    public void setWarmStart(FLASHWarmStart warmStart) {
+        this.warmStart = warmStart;
+    }
+
     /**
      * Checks an argument.
      *
@@ -1170,6 +1563,37 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return result;
     }
 
+    /**
+     * Returns a new instance of the configuration for checking transformations in a separate thread.
+     * Privacy models and quality models may maintain buffers, which is why all of them are cloned and
+     * initialized with the data manager of this configuration, which must have been initialized before.
+     *
+     * @return
+     */
+    protected ARXConfiguration getInstanceForWorker() {
+
+        // Clone all models
+        HashSet<PrivacyCriterion> criteria = new HashSet<PrivacyCriterion>();
+        for (PrivacyCriterion criterion : this.getPrivacyModels()) {
+            criteria.add(criterion.clone());
+        }
+        ARXConfiguration result = this.clone();
+        result.aCriteria = null;
+        result.criteria = criteria;
+        result.metric = this.getQualityModel().getDescription().createInstance(this.getQualityModel().getConfiguration());
+
+        // Initialize
+        result.initializeInternal(this.manager);
+        result.metric.initialize(this.manager,
+                                 this.manager.getDataDefinition(),
+                                 this.manager.getDataGeneralized(),
+                                 this.manager.getHierarchies(),
+                                 result);
+
+        // Return
+        return result;
+    }
+
     /**
      * Returns an internal variant of the class which provides a broader interface
      *
@@ -1230,6 +1654,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.snapshotLength;
     }
 
+    /**
+     * Returns the data manager with which this configuration has been initialized.
+     * @return
+     */
+    protected DataManager getDataManager() {
+        return this.manager;
+    }
+
     /**
      * Returns the data subset, if any subset is defined.
      * You may only call this, after the configuration has be initialized.
@@ -1270,6 +1702,25 @@ public class ARXConfiguration implements Serializable, Cloneable {
             throw new RuntimeException("At least one privacy model must be specified!"); 
         }
 
+        // Prepare
+        if (this.dataManagerCache != null) {
+            manager.setDataManagerCache(this.dataManagerCache);
+        }
+
+        // Initialize
+        this.initializeInternal(manager);
+    }
+
+    /**
+     * Initializes the privacy models and all derived parameters.
+     *
+     * @param manager
+     */
+    private void initializeInternal(DataManager manager) {
+
+        // Store
+        this.manager = manager;
+
         // Compute requirements
         this.requirements = 0x0;
         for (PrivacyCriterion c : criteria) {
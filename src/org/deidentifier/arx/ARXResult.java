@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.deidentifier.arx.ARXAnonymizer.Result;
 import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.algorithm.FLASHStatistics;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.criteria.ProfitabilityJournalist;
 import org.deidentifier.arx.exceptions.RollbackRequiredException;
@@ -376,6 +377,16 @@ public class ARXResult {
         return getOutput(optimalNode, fork);
     }
 
+    /**
+     * Returns statistics collected by the search algorithm during the anonymization that
+     * created this result, null if there are none.
+     *
+     * @return
+     */
+    public FLASHStatistics getSearchStatistics() {
+        return FLASHStatistics.getStatistics(solutionSpace);
+    }
+
     /**
      * Returns the execution time (wall clock).
      *
@@ -0,0 +1,308 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
+import org.deidentifier.arx.criteria.ProfitabilityProsecutor;
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+
+import cern.colt.list.LongArrayList;
+
+import com.carrotsearch.hppc.LongOpenHashSet;
+
+/**
+ * This class implements a best-first branch-and-bound search for non-monotonic privacy models.
+ * Transformations are expanded in ascending order of the lower bounds of their information loss.
+ * As lower bounds are monotonic within the generalization lattice, a transformation that has not
+ * yet been checked inherits the bound of the predecessor from which it has been reached, unless the
+ * quality model provides a tighter bound without checking it. The search terminates as soon as no
+ * outstanding transformation can be better than the current optimum, or when it is cancelled or
+ * runs out of time.
+ *
+ * @author Fabian Prasser
+ */
+public class BranchAndBoundAlgorithmImpl extends AbstractAlgorithm {
+
+    /** Initial capacity of the heap */
+    private static final int     INITIAL_CAPACITY = 64;
+
+    /** The identifiers in the heap */
+    private long[]               identifiers;
+
+    /** The inherited lower bounds of the identifiers in the heap, null means unknown */
+    private InformationLoss<?>[] bounds;
+
+    /** The number of elements in the heap */
+    private int                  size;
+
+    /** The number of checked transformations */
+    private int                  checked;
+
+    /** Statistics collected during the search */
+    private final FLASHStatistics statistics;
+
+    /** Time limit of the search in milliseconds */
+    private final int             timeLimit;
+
+    /** Listener, may be null */
+    private final FLASHListener   listener;
+
+    /**
+     * Returns whether branch and bound should be used instead of FLASH, which is the case if it
+     * has been enabled, all privacy models are profitability models and pruning based on lower
+     * bounds is enabled. Like FLASH, branch and bound does not prune based on lower bounds if
+     * practical monotonicity is assumed, which is why FLASH is used in this case.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean isApplicable(ARXConfigurationInternal config) {
+        if (!config.isBranchAndBoundEnabled() || !config.isLowerBoundPruningEnabled() ||
+            config.isPracticalMonotonicity() || config.getPrivacyModels().isEmpty()) {
+            return false;
+        }
+        for (PrivacyCriterion criterion : config.getPrivacyModels()) {
+            if (!(criterion instanceof ProfitabilityProsecutor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param solutionSpace
+     * @param checker
+     * @param statistics Statistics of the run
+     */
+    public BranchAndBoundAlgorithmImpl(SolutionSpace solutionSpace, NodeChecker checker, FLASHStatistics statistics) {
+        super(solutionSpace, checker);
+        this.identifiers = new long[INITIAL_CAPACITY];
+        this.bounds = new InformationLoss<?>[INITIAL_CAPACITY];
+        this.size = 0;
+        this.checked = 0;
+        this.statistics = statistics;
+        this.timeLimit = checker.getConfiguration().getOptimalSearchTimeLimit();
+        this.listener = checker.getConfiguration().getSearchListener();
+    }
+
+    @Override
+    public void traverse() {
+
+        // Initialize
+        LongOpenHashSet enqueued = new LongOpenHashSet();
+        Transformation bottom = solutionSpace.getBottom();
+        Transformation top = solutionSpace.getTop();
+        offer(bottom.getIdentifier(), null);
+        enqueued.add(bottom.getIdentifier());
+
+        // Prepare time limit
+        long deadline = timeLimit == Integer.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + timeLimit;
+        boolean stopped = false;
+
+        // Best first
+        while (size > 0) {
+
+            // Stop, if cancelled or out of time
+            if (System.currentTimeMillis() >= deadline || (listener != null && listener.isCancelled())) {
+                stopped = true;
+                break;
+            }
+
+            // Bound
+            Transformation optimum = getGlobalOptimum();
+            if (optimum != null && isNotBetter(optimum.getInformationLoss(), bounds[0])) {
+                statistics.nodesPrunedByLowerBound(size);
+                break;
+            }
+
+            // Check
+            InformationLoss<?> bound = bounds[0];
+            Transformation transformation = solutionSpace.getTransformation(poll());
+            long time = System.nanoTime();
+            transformation.setChecked(checker.check(transformation));
+            statistics.nodeChecked(transformation.getIdentifier(), transformation.getGeneralization(), "branch-and-bound", System.nanoTime() - time);
+            progress((double)++checked / (double)solutionSpace.getSize());
+            trackOptimum(transformation);
+
+            // Successors inherit the tighter of both bounds
+            if (compare(transformation.getLowerBound(), bound) > 0) {
+                bound = transformation.getLowerBound();
+            }
+
+            // Prune successors
+            optimum = getGlobalOptimum();
+            if (optimum != null && isNotBetter(optimum.getInformationLoss(), bound)) {
+                continue;
+            }
+
+            // Branch
+            LongArrayList successors = transformation.getSuccessors();
+            for (int i = 0; i < successors.size(); i++) {
+                long successor = successors.getQuick(i);
+                if (enqueued.add(successor)) {
+
+                    // Successors may have a tighter bound that does not require checking them
+                    InformationLoss<?> successorBound = checker.getMetric().getLowerBound(solutionSpace.getTransformation(successor));
+                    if (compare(successorBound, bound) < 0) {
+                        successorBound = bound;
+                    }
+                    if (optimum != null && isNotBetter(optimum.getInformationLoss(), successorBound)) {
+                        statistics.nodePrunedByLowerBound();
+                        continue;
+                    }
+                    offer(successor, successorBound);
+                }
+            }
+        }
+
+        // Report the best solution found so far, if the search has been stopped. The smallest bound
+        // in the heap bounds the information loss of all transformations that have not been checked.
+        if (stopped && listener != null) {
+            Transformation optimum = getGlobalOptimum();
+            listener.searchStopped(optimum == null ? null : optimum.getGeneralization(),
+                                   optimum == null ? null : optimum.getInformationLoss(),
+                                   bounds[0]);
+        }
+
+        // Potentially allows to better estimate utility in the lattice
+        computeUtilityForMonotonicMetrics(bottom);
+        computeUtilityForMonotonicMetrics(top);
+    }
+
+    @Override
+    protected void trackOptimum(Transformation transformation) {
+
+        // Track
+        Transformation optimum = getGlobalOptimum();
+        long previous = optimum == null ? -1L : optimum.getIdentifier();
+        super.trackOptimum(transformation);
+
+        // Inform listener
+        optimum = getGlobalOptimum();
+        if (listener != null && optimum != null && optimum.getIdentifier() != previous) {
+            listener.optimumFound(optimum.getGeneralization(), optimum.getInformationLoss());
+        }
+    }
+
+    /**
+     * Compares bounds, where null represents an unknown bound, which is smaller than all others
+     *
+     * @param bound1
+     * @param bound2
+     * @return
+     */
+    private int compare(InformationLoss<?> bound1, InformationLoss<?> bound2) {
+        if (bound1 == null) {
+            return bound2 == null ? 0 : -1;
+        } else if (bound2 == null) {
+            return +1;
+        } else {
+            return bound1.compareTo(bound2);
+        }
+    }
+
+    /**
+     * Returns whether the given information loss is not worse than the given lower bound, which means that
+     * transformations with this bound cannot be better than a transformation with this information loss.
+     *
+     * @param informationLoss
+     * @param bound
+     * @return
+     */
+    private boolean isNotBetter(InformationLoss<?> informationLoss, InformationLoss<?> bound) {
+        return bound != null && informationLoss.compareTo(bound) <= 0;
+    }
+
+    /**
+     * Adds a transformation to the heap
+     *
+     * @param identifier
+     * @param bound
+     */
+    private void offer(long identifier, InformationLoss<?> bound) {
+
+        // Grow
+        if (size == identifiers.length) {
+            int capacity = identifiers.length << 1;
+            long[] _identifiers = new long[capacity];
+            InformationLoss<?>[] _bounds = new InformationLoss<?>[capacity];
+            System.arraycopy(identifiers, 0, _identifiers, 0, size);
+            System.arraycopy(bounds, 0, _bounds, 0, size);
+            identifiers = _identifiers;
+            bounds = _bounds;
+        }
+
+        // Sift up
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(bounds[parent], bound) <= 0) {
+                break;
+            }
+            identifiers[index] = identifiers[parent];
+            bounds[index] = bounds[parent];
+            index = parent;
+        }
+        identifiers[index] = identifier;
+        bounds[index] = bound;
+    }
+
+    /**
+     * Removes and returns the transformation with the smallest lower bound from the heap
+     *
+     * @return
+     */
+    private long poll() {
+
+        // Remove head
+        long result = identifiers[0];
+        size--;
+        long identifier = identifiers[size];
+        InformationLoss<?> bound = bounds[size];
+        bounds[size] = null;
+        if (size == 0) {
+            return result;
+        }
+
+        // Sift down the last element
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && compare(bounds[right], bounds[child]) < 0) {
+                child = right;
+            }
+            if (compare(bound, bounds[child]) <= 0) {
+                break;
+            }
+            identifiers[index] = identifiers[child];
+            bounds[index] = bounds[child];
+            index = child;
+        }
+        identifiers[index] = identifier;
+        bounds[index] = bound;
+        return result;
+    }
+}
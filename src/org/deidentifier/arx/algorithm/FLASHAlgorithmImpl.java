@@ -18,14 +18,20 @@
 package org.deidentifier.arx.algorithm;
 
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.algorithm.FLASHPhaseConfiguration.PhaseAnonymityProperty;
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.DependentAction;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -37,7 +43,7 @@ import cern.colt.Swapper;
 import cern.colt.function.IntComparator;
 import cern.colt.list.LongArrayList;
 
-import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
 
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
 import de.linearbits.jhpl.PredictiveProperty;
@@ -50,26 +56,95 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
+    /** History size of the checkers used in parallel mode */
+    private static final int           PARALLEL_HISTORY_SIZE           = 200;
+
+    /** Snapshot size of the checkers used in parallel mode */
+    private static final double        PARALLEL_SNAPSHOT_SIZE_DATASET  = 0.2d;
+
+    /** Snapshot size of the checkers used in parallel mode */
+    private static final double        PARALLEL_SNAPSHOT_SIZE_SNAPSHOT = 0.8d;
+
+    /** Number of results checked in advance above which results that will not be used anymore are evicted */
+    private static final int           PARALLEL_PREFETCH_SIZE          = 1 << 12;
+
+    /** Maximal number of sorted successors in each generation of the cache */
+    private static final int           SUCCESSOR_CACHE_SIZE            = 1 << 18;
+
     /** Configuration for the algorithm's phases. */
     protected final FLASHConfiguration config;
 
-    /** Are the pointers for a node with id 'index' already sorted?. */
-    private final int[][]              sortedSuccessors;
+    /** Sorted successors of recently visited transformations */
+    private LongObjectOpenHashMap<long[]> sortedSuccessors;
+
+    /** Sorted successors of transformations visited before the cache has been rotated */
+    private LongObjectOpenHashMap<long[]> sortedSuccessorsPrevious;
 
     /** The strategy. */
     private final FLASHStrategy        strategy;
 
+    /** Whether identifiers are within the range supported by the strategy */
+    private final boolean              strategyApplicable;
+
     /**
-     * List of nodes that may be used for pruning transformations with
+     * Nodes that may be used for pruning transformations with
      * insufficient utility.
      */
-    private final List<Integer>        potentiallyInsufficientUtility;
+    private final FLASHPruningCandidates potentiallyInsufficientUtility;
 
     /** The number of checked transformations */
     private int                        checked         = 0;
 
     /** Flag for activating or de-activating the optimization*/
-    public static boolean              USE_LOWER_BOUND = true;
+    private final boolean              useLowerBound;
+
+    /** Flag for activating or de-activating the primitive priority queue*/
+    private final boolean              usePrimitiveQueue;
+
+    /** Stack of transformations visited by the linear phase */
+    private final Transformation[]     stackTransformations;
+
+    /** Stack of successors of transformations visited by the linear phase */
+    private final long[][]             stackSuccessors;
+
+    /** Stack of offsets of the next successors to visit in the linear phase */
+    private final int[]                stackOffsets;
+
+    /** Time limit of the search in milliseconds */
+    private final int                  timeLimit;
+
+    /** Point in time at which the search is stopped */
+    private long                       deadline;
+
+    /** Whether the search has been stopped */
+    private boolean                    stopped;
+
+    /** Listener, may be null */
+    private final FLASHListener        listener;
+
+    /** State for warm-starting the search, may be null */
+    private final FLASHWarmStart       warmStart;
+
+    /** Statistics collected during the search */
+    private final FLASHStatistics      statistics;
+
+    /** File to which checks are traced, may be null */
+    private final String               traceFile;
+
+    /** Buffer for paths constructed in the binary phase */
+    private final List<Transformation> path            = new ArrayList<Transformation>();
+
+    /** Checkers used for checking transformations in parallel, null in sequential mode */
+    private NodeChecker[]              checkers;
+
+    /** Executor running the checkers, null in sequential mode */
+    private ExecutorService            executor;
+
+    /** Results of transformations that have been checked in advance */
+    private LongObjectOpenHashMap<NodeChecker.Result> prefetched;
+
+    /** Buffer for transformations that are to be checked in advance */
+    private LongArrayList              prefetchBuffer;
 
     /**
      * Creates a new instance.
@@ -85,16 +160,25 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                               FLASHConfiguration config) {
 
         super(solutionSpace, checker);
-        if (solutionSpace.getSize() > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException();
-        }
         this.checked = 0;
         this.solutionSpace.setAnonymityPropertyPredictable(config.isAnonymityPropertyPredicable());
         this.strategy = strategy;
-        this.sortedSuccessors = new int[(int)solutionSpace.getSize()][];
+        this.strategyApplicable = solutionSpace.getSize() <= Integer.MAX_VALUE;
+        this.sortedSuccessors = new LongObjectOpenHashMap<long[]>();
+        this.sortedSuccessorsPrevious = new LongObjectOpenHashMap<long[]>();
+        this.stackTransformations = new Transformation[solutionSpace.getTop().getLevel() + 1];
+        this.stackSuccessors = new long[solutionSpace.getTop().getLevel() + 1][];
+        this.stackOffsets = new int[solutionSpace.getTop().getLevel() + 1];
         this.config = config;
+        this.useLowerBound = checker.getConfiguration().isLowerBoundPruningEnabled();
+        this.usePrimitiveQueue = checker.getConfiguration().isPrimitivePriorityQueueEnabled();
+        this.timeLimit = checker.getConfiguration().getOptimalSearchTimeLimit();
+        this.listener = checker.getConfiguration().getSearchListener();
+        this.warmStart = checker.getConfiguration().getWarmStart();
+        this.statistics = FLASHStatistics.create(solutionSpace);
+        this.traceFile = checker.getConfiguration().getSearchTraceFile();
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
-                                              new LinkedList<Integer>() : null;
+                                              new FLASHPruningCandidates() : null;
     }
 
     @Override
@@ -111,20 +195,99 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         // Set some triggers
         checker.getHistory().setStorageStrategy(config.getSnapshotStorageStrategy());
 
+        // Trace checks, if requested
+        if (traceFile != null) {
+            statistics.openTrace(traceFile);
+        }
+        try {
+
+            // Use branch and bound for non-monotonic profitability models, if enabled
+            if (BranchAndBoundAlgorithmImpl.isApplicable(checker.getConfiguration())) {
+                BranchAndBoundAlgorithmImpl algorithm = new BranchAndBoundAlgorithmImpl(solutionSpace, checker, statistics);
+                algorithm.traverse();
+                if (algorithm.getGlobalOptimum() != null) {
+                    // Branch and bound has already informed the listener
+                    super.trackOptimum(algorithm.getGlobalOptimum());
+                }
+                return;
+            }
+
+            // Prepare time limit
+            this.stopped = false;
+            this.deadline = timeLimit == Integer.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + timeLimit;
+
+            // Prepare parallel mode
+            initializeParallelMode();
+            try {
+                traverse(outerLoopConfiguration);
+            } finally {
+                shutdownParallelMode();
+            }
+        } finally {
+            statistics.closeTrace();
+        }
+    }
+
+    @Override
+    protected void trackOptimum(Transformation transformation) {
+
+        // Track
+        Transformation optimum = getGlobalOptimum();
+        long previous = optimum == null ? -1L : optimum.getIdentifier();
+        super.trackOptimum(transformation);
+
+        // Inform listener
+        optimum = getGlobalOptimum();
+        if (listener != null && optimum != null && optimum.getIdentifier() != previous) {
+            listener.optimumFound(optimum.getGeneralization(), optimum.getInformationLoss());
+        }
+    }
+
+    /**
+     * Implements the outer loop.
+     *
+     * @param outerLoopConfiguration
+     */
+    private void traverse(FLASHPhaseConfiguration outerLoopConfiguration) {
+
         // Initialize
-        PriorityQueue<Integer> queue = new PriorityQueue<Integer>(solutionSpace.getTop().getLevel() + 1, strategy);
+        FLASHPriorityQueue queue = new FLASHPriorityQueue(solutionSpace, strategy, usePrimitiveQueue);
         Transformation bottom = solutionSpace.getBottom();
         Transformation top = solutionSpace.getTop();
 
         // Check bottom for speed and remember the result to prevent repeated checks
+        long time = System.nanoTime();
         NodeChecker.Result result = checker.check(bottom);
+        statistics.nodeChecked(bottom.getIdentifier(), bottom.getGeneralization(), "bottom", System.nanoTime() - time);
         bottom.setProperty(solutionSpace.getPropertyForceSnapshot());
         bottom.setData(result);
         progress((double)++checked / (double)solutionSpace.getSize());
 
+        // Check the optimum of a previous run first, which provides an early bound for pruning
+        if (warmStart != null) {
+            int[] generalization = warmStart.getOptimum(bottom.getGeneralization(), top.getGeneralization());
+            if (generalization != null) {
+                Transformation seed = solutionSpace.getTransformation(generalization);
+                if (seed.getIdentifier() != bottom.getIdentifier()) {
+                    time = System.nanoTime();
+                    seed.setChecked(check(seed));
+                    statistics.nodeChecked(seed.getIdentifier(), seed.getGeneralization(), "warm-start", System.nanoTime() - time);
+                    progress((double)++checked / (double)solutionSpace.getSize());
+                    trackOptimum(seed);
+                    prune(seed);
+                }
+            }
+        }
+
         // For each node in the lattice
-        for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
-            for (int id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
+        int level = bottom.getLevel();
+        for (; level <= top.getLevel() && !isStopped(); level++) {
+            for (long id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
+
+                // Stop, if cancelled or out of time
+                if (isStopped()) {
+                    break;
+                }
 
                 // Run the correct phase
                 Transformation transformation = solutionSpace.getTransformation(id);
@@ -136,6 +299,21 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             }
         }
 
+        // Report the best solution found so far, if the search has been stopped
+        if (stopped && listener != null) {
+            Transformation optimum = getGlobalOptimum();
+            listener.searchStopped(optimum == null ? null : optimum.getGeneralization(),
+                                   optimum == null ? null : optimum.getInformationLoss(),
+                                   getLowerBoundOfRemainingTransformations(Math.max(bottom.getLevel(), level - 1),
+                                                                          outerLoopConfiguration.getTriggerSkip()));
+        }
+
+        // Remember the optimum for the next run
+        if (warmStart != null) {
+            Transformation optimum = getGlobalOptimum();
+            warmStart.update(bottom.getGeneralization(), top.getGeneralization(), optimum == null ? null : optimum.getGeneralization());
+        }
+
         // Potentially allows to better estimate utility in the lattice
         computeUtilityForMonotonicMetrics(bottom);
         computeUtilityForMonotonicMetrics(top);
@@ -155,24 +333,27 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param transformation
      * @param queue
      */
-    private void binarySearch(Transformation transformation, PriorityQueue<Integer> queue) {
+    private void binarySearch(Transformation transformation, FLASHPriorityQueue queue) {
 
         // Obtain node action
         DependentAction triggerSkip = config.getBinaryPhaseConfiguration().getTriggerSkip();
 
+        // Measure time excluding the linear phase
+        long time = System.nanoTime();
+        long timeLinearPhase = statistics.getTimeLinearPhase();
+
         // Add to queue
-        queue.add((int)transformation.getIdentifier());
+        queue.add(transformation);
 
         // While queue is not empty
-        while (!queue.isEmpty()) {
+        while (!queue.isEmpty() && !isStopped()) {
 
             // Remove head and process
             transformation = solutionSpace.getTransformation(queue.poll());
             if (!skip(triggerSkip, transformation)) {
 
                 // First phase
-                List<Transformation> path = findPath(transformation, triggerSkip);
-                transformation = checkPath(path, triggerSkip, queue);
+                transformation = checkPath(findPath(transformation, triggerSkip), triggerSkip, queue);
 
                 // Second phase
                 if (config.isLinearPhaseRequired() && (transformation != null)) {
@@ -182,6 +363,25 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 }
             }
         }
+
+        // Update statistics
+        statistics.addTimeBinaryPhase(System.nanoTime() - time - (statistics.getTimeLinearPhase() - timeLinearPhase));
+    }
+
+    /**
+     * Checks the given transformation, using a result that has been computed in advance, if any.
+     *
+     * @param transformation
+     * @return
+     */
+    private NodeChecker.Result check(Transformation transformation) {
+        if (prefetched != null) {
+            NodeChecker.Result result = prefetched.remove(transformation.getIdentifier());
+            if (result != null) {
+                return result;
+            }
+        }
+        return checker.check(transformation);
     }
 
     /**
@@ -200,8 +400,14 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             if (loss.getLowerBound() == null) {
                 transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
             }
+            statistics.nodeEvaluated();
         } else if (configuration.getTriggerCheck().appliesTo(transformation)) {
-            transformation.setChecked(checker.check(transformation));
+            long time = System.nanoTime();
+            transformation.setChecked(check(transformation));
+            statistics.nodeChecked(transformation.getIdentifier(),
+                                   transformation.getGeneralization(),
+                                   configuration == config.getBinaryPhaseConfiguration() ? "binary" : "linear",
+                                   System.nanoTime() - time);
             progress((double)++checked / (double)solutionSpace.getSize());
         }
 
@@ -215,6 +421,51 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         prune(transformation);
     }
 
+    /**
+     * Checks all transformations in the buffer in parallel and stores the results.
+     * The lattice is only read while the workers are running and each worker uses
+     * its own instances of the privacy models and of the quality model.
+     */
+    private void checkInParallel() {
+
+        // Prepare
+        final long[] identifiers = new long[prefetchBuffer.size()];
+        System.arraycopy(prefetchBuffer.elements(), 0, identifiers, 0, identifiers.length);
+        final NodeChecker.Result[] results = new NodeChecker.Result[identifiers.length];
+        final int stride = Math.min(checkers.length, identifiers.length);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(stride);
+        for (int i = 0; i < stride; i++) {
+            final NodeChecker worker = checkers[i];
+            final int offset = i;
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int j = offset; j < identifiers.length; j += stride) {
+                        results[j] = worker.check(solutionSpace.getTransformation(identifiers[j]));
+                    }
+                    return null;
+                }
+            });
+        }
+
+        // Execute and wait
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        // Store
+        for (int i = 0; i < identifiers.length; i++) {
+            prefetched.put(identifiers[i], results[i]);
+        }
+    }
+
     /**
      * Checks a path binary.
      *
@@ -223,7 +474,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param queue
      * @return
      */
-    private Transformation checkPath(List<Transformation> path, DependentAction triggerSkip, PriorityQueue<Integer> queue) {
+    private Transformation checkPath(List<Transformation> path, DependentAction triggerSkip, FLASHPriorityQueue queue) {
 
         // Obtain anonymity property
         PredictiveProperty anonymityProperty = config.getBinaryPhaseConfiguration().getAnonymityProperty() == PhaseAnonymityProperty.ANONYMITY ?
@@ -244,14 +495,18 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Skip
             if (!skip(triggerSkip, transformation)) {
 
+                // Check the next steps of the binary search in advance
+                prefetch(path, low, high, triggerSkip, config.getBinaryPhaseConfiguration());
+
                 // Check and tag
                 checkAndTag(transformation, config.getBinaryPhaseConfiguration());
 
                 // Add nodes to queue
                 if (!transformation.hasProperty(anonymityProperty)) {
-                    for (final int up : getSortedSuccessors(transformation)) {
-                        if (!skip(triggerSkip, solutionSpace.getTransformation(up))) {
-                            queue.add(up);
+                    for (final long up : getSortedSuccessors(transformation)) {
+                        Transformation successor = solutionSpace.getTransformation(up);
+                        if (!skip(triggerSkip, successor)) {
+                            queue.add(successor);
                         }
                     }
                 }
@@ -271,20 +526,39 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return lastAnonymousTransformation;
     }
 
+    /**
+     * Removes results which have been checked in advance for transformations that will be skipped. If this
+     * does not suffice to bound the number of results, all of them are removed.
+     *
+     * @param triggerSkip
+     */
+    private void evictPrefetched(DependentAction triggerSkip) {
+        for (long id : prefetched.keys().toArray()) {
+            Transformation transformation = solutionSpace.getTransformation(id);
+            if (triggerSkip.appliesTo(transformation) ||
+                transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility())) {
+                prefetched.remove(id);
+            }
+        }
+        if (prefetched.size() > PARALLEL_PREFETCH_SIZE) {
+            prefetched.clear();
+        }
+    }
+
     /**
      * Greedily finds a path to the top node.
      *
      * @param current The node to start the path with. Will be included
      * @param triggerSkip All nodes to which this trigger applies will be skipped
-     * @return The path as a list
+     * @return The path as a list, which is reused by subsequent calls
      */
     private List<Transformation> findPath(Transformation current, DependentAction triggerSkip) {
-        List<Transformation> path = new ArrayList<Transformation>();
+        path.clear();
         path.add(current);
         boolean found = true;
         while (found) {
             found = false;
-            for (final int id : getSortedSuccessors(current)) {
+            for (final long id : getSortedSuccessors(current)) {
                 Transformation next = solutionSpace.getTransformation(id);
                 if (!skip(triggerSkip, next)) {
                     current = next;
@@ -297,6 +571,54 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return path;
     }
     
+    /**
+     * Returns the minimal lower bound of the information loss of all outstanding pruning candidates and of
+     * all transformations on the given and the following levels which have not yet been processed. As lower
+     * bounds are monotonic, this bounds the information loss of all transformations that have not been
+     * considered by the search. Returns the information loss of the optimum, if no such transformations
+     * remain, and null if the bound of any of them is unknown.
+     *
+     * @param level
+     * @param triggerSkip
+     * @return
+     */
+    private InformationLoss<?> getLowerBoundOfRemainingTransformations(int level, DependentAction triggerSkip) {
+
+        // Pruning candidates which have not been pruned in the meantime
+        InformationLoss<?> result = null;
+        if (potentiallyInsufficientUtility != null) {
+            potentiallyInsufficientUtility.purge(solutionSpace);
+            result = potentiallyInsufficientUtility.getMinimalBound();
+        }
+
+        // Transformations which have not been processed
+        for (; level <= solutionSpace.getTop().getLevel(); level++) {
+            for (LongIterator iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
+                Transformation transformation = solutionSpace.getTransformation(iter.next());
+                if (triggerSkip.appliesTo(transformation) ||
+                    transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility())) {
+                    continue;
+                }
+                InformationLoss<?> bound = transformation.getLowerBound();
+                if (bound == null) {
+                    bound = checker.getMetric().getLowerBound(transformation);
+                }
+                if (bound == null) {
+                    return null;
+                }
+                if (result == null || bound.compareTo(result) < 0) {
+                    result = bound;
+                }
+            }
+        }
+
+        // Nothing remains
+        if (result == null && getGlobalOptimum() != null) {
+            result = getGlobalOptimum().getInformationLoss();
+        }
+        return result;
+    }
+
     /**
      * Returns all transformations that do not have the given property and sorts the resulting array
      * according to the strategy.
@@ -305,24 +627,91 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param triggerSkip The trigger to be used for limiting the number of nodes to be sorted
      * @return A sorted array of nodes remaining on this level
      */
-    private int[] getSortedUnprocessedNodes(int level, DependentAction triggerSkip) {
+    private long[] getSortedUnprocessedNodes(int level, DependentAction triggerSkip) {
 
         // Create
-        IntArrayList list = new IntArrayList();
+        LongArrayList list = new LongArrayList();
         for (LongIterator iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
             long id = iter.next();
             if (!skip(triggerSkip, solutionSpace.getTransformation(id))) {
-                list.add((int)id);
+                list.add(id);
             }            
         }
 
         // Copy & sort
-        int[] array = new int[list.size()];
-        System.arraycopy(list.buffer, 0, array, 0, list.elementsCount);
+        long[] array = new long[list.size()];
+        System.arraycopy(list.elements(), 0, array, 0, list.size());
         sort(array);
         return array;
     }
 
+    /**
+     * Prepares the parallel mode, if more than one thread has been configured
+     */
+    private void initializeParallelMode() {
+
+        // Check
+        int threads = checker.getConfiguration().getNumberOfThreads();
+        if (threads <= 1) {
+            return;
+        }
+
+        // Each worker needs its own checker and models, because they maintain buffers and snapshots
+        DataManager manager = checker.getConfiguration().getDataManager();
+        this.checkers = new NodeChecker[threads];
+        for (int i = 0; i < threads; i++) {
+            ARXConfigurationInternal configuration = checker.getConfiguration().getInstanceForWorker();
+            this.checkers[i] = new NodeChecker(manager,
+                                               configuration.getQualityModel(),
+                                               configuration,
+                                               PARALLEL_HISTORY_SIZE,
+                                               PARALLEL_SNAPSHOT_SIZE_DATASET,
+                                               PARALLEL_SNAPSHOT_SIZE_SNAPSHOT,
+                                               solutionSpace);
+            this.checkers[i].getHistory().setStorageStrategy(config.getSnapshotStorageStrategy());
+        }
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "FLASH checker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.prefetched = new LongObjectOpenHashMap<NodeChecker.Result>();
+        this.prefetchBuffer = new LongArrayList();
+    }
+
+    /**
+     * Returns whether the given transformation can be checked in advance
+     *
+     * @param transformation
+     * @param triggerSkip
+     * @param configuration
+     * @return
+     */
+    private boolean isPrefetchable(Transformation transformation,
+                                   DependentAction triggerSkip,
+                                   FLASHPhaseConfiguration configuration) {
+        return !prefetched.containsKey(transformation.getIdentifier()) &&
+               !triggerSkip.appliesTo(transformation) &&
+               !transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility()) &&
+               !configuration.getTriggerEvaluate().appliesTo(transformation) &&
+               configuration.getTriggerCheck().appliesTo(transformation);
+    }
+
+    /**
+     * Returns whether the search has been cancelled or has run out of time.
+     *
+     * @return
+     */
+    private boolean isStopped() {
+        if (!stopped) {
+            stopped = System.currentTimeMillis() >= deadline || (listener != null && listener.isCancelled());
+        }
+        return stopped;
+    }
+
     /**
      * Implements a depth-first search with predictive tagging.
      *
@@ -334,22 +723,148 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         DependentAction triggerSkip = config.getLinearPhaseConfiguration().getTriggerSkip();
 
         // Skip this node
-        if (!skip(triggerSkip, transformation)) {
+        if (skip(triggerSkip, transformation)) {
+            transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+            return;
+        }
+
+        // DFS with an explicit stack, as successors are on the next level its depth is bounded by the height of the lattice
+        long time = System.nanoTime();
+        int depth = -1;
+        Transformation next = transformation;
+        while ((next != null || depth >= 0) && !isStopped()) {
+
+            // Descend
+            if (next != null) {
+
+                // Check and tag
+                checkAndTag(next, config.getLinearPhaseConfiguration());
+
+                // Check successors in advance
+                long[] successors = getSortedSuccessors(next);
+                prefetch(successors, triggerSkip, config.getLinearPhaseConfiguration());
+
+                // Push
+                depth++;
+                stackTransformations[depth] = next;
+                stackSuccessors[depth] = successors;
+                stackOffsets[depth] = 0;
+                next = null;
+            }
+
+            // Visit next successor
+            if (stackOffsets[depth] < stackSuccessors[depth].length) {
+                Transformation child = solutionSpace.getTransformation(stackSuccessors[depth][stackOffsets[depth]++]);
+                if (!skip(triggerSkip, child)) {
+                    next = child;
+                }
+
+            // Ascend
+            } else {
+
+                // Mark as successors pruned
+                stackTransformations[depth].setProperty(solutionSpace.getPropertySuccessorsPruned());
+
+                // Pop
+                stackTransformations[depth] = null;
+                stackSuccessors[depth] = null;
+                depth--;
+            }
+        }
+
+        // Update statistics
+        statistics.addTimeLinearPhase(System.nanoTime() - time);
+    }
+
+    /**
+     * Checks the given transformations in advance, if the parallel mode is enabled.
+     * Transformations that are tagged or pruned in the meantime are never consumed, which
+     * only wastes some work but does not change the result of the search. Their results
+     * are evicted when too many results have accumulated.
+     *
+     * @param identifiers
+     * @param triggerSkip
+     * @param configuration
+     */
+    private void prefetch(long[] identifiers, DependentAction triggerSkip, FLASHPhaseConfiguration configuration) {
+
+        // Check
+        if (checkers == null) {
+            return;
+        }
+
+        // Evict results that will not be used anymore
+        if (prefetched.size() > PARALLEL_PREFETCH_SIZE) {
+            evictPrefetched(triggerSkip);
+        }
+
+        // Collect
+        prefetchBuffer.clear();
+        for (long id : identifiers) {
+            if (isPrefetchable(solutionSpace.getTransformation(id), triggerSkip, configuration)) {
+                prefetchBuffer.add(id);
+            }
+        }
+
+        // Check, if this is worth the effort
+        if (prefetchBuffer.size() > 1) {
+            checkInParallel();
+        }
+    }
 
-            // Check and tag
-            checkAndTag(transformation, config.getLinearPhaseConfiguration());
+    /**
+     * Checks the transformations which will be visited by the next steps of a binary search
+     * on the given path in advance, if the parallel mode is enabled.
+     *
+     * @param path
+     * @param low
+     * @param high
+     * @param triggerSkip
+     * @param configuration
+     */
+    private void prefetch(List<Transformation> path,
+                          int low,
+                          int high,
+                          DependentAction triggerSkip,
+                          FLASHPhaseConfiguration configuration) {
+
+        // Check
+        if (checkers == null) {
+            return;
+        }
+
+        // Evict results that will not be used anymore
+        if (prefetched.size() > PARALLEL_PREFETCH_SIZE) {
+            evictPrefetched(triggerSkip);
+        }
 
-            // DFS
-            for (final int child : getSortedSuccessors(transformation)) {
-                Transformation childTransformation = solutionSpace.getTransformation(child);
-                if (!skip(triggerSkip, childTransformation)) {
-                    linearSearch(childTransformation);
+        // Breadth-first traversal of the remaining decisions of the binary search
+        prefetchBuffer.clear();
+        int[] ranges = new int[4 * (high - low + 1) + 2];
+        int head = 0;
+        int tail = 0;
+        ranges[tail++] = low;
+        ranges[tail++] = high;
+        while (head < tail && prefetchBuffer.size() < checkers.length) {
+            int _low = ranges[head++];
+            int _high = ranges[head++];
+            if (_low <= _high) {
+                int mid = (_low + _high) / 2;
+                Transformation transformation = path.get(mid);
+                if (isPrefetchable(transformation, triggerSkip, configuration)) {
+                    prefetchBuffer.add(transformation.getIdentifier());
                 }
+                ranges[tail++] = _low;
+                ranges[tail++] = mid - 1;
+                ranges[tail++] = mid + 1;
+                ranges[tail++] = _high;
             }
         }
 
-        // Mark as successors pruned
-        transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+        // Check, if this is worth the effort
+        if (prefetchBuffer.size() > 1) {
+            checkInParallel();
+        }
     }
 
     /**
@@ -380,7 +895,8 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // If we haven't yet found an optimum, we simply add the node to the list of pruning candidates
         if (optimalTransformation == null) {
-            potentiallyInsufficientUtility.add((int)node.getIdentifier());
+            potentiallyInsufficientUtility.add(node.getIdentifier(), node.getLowerBound());
+            statistics.pruningCandidates(potentiallyInsufficientUtility.size());
             return;
         }
 
@@ -394,39 +910,49 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             if (optimalInfoLoss.compareTo(node.getLowerBound()) <= 0) {
                 node.setProperty(solutionSpace.getPropertyInsufficientUtility());
                 node.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                statistics.nodePrunedByLowerBound();
                 // Else, we store it as a future pruning candidate
             } else {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(node.getIdentifier(), node.getLowerBound());
+                statistics.pruningCandidates(potentiallyInsufficientUtility.size());
             }
 
             // If the current node is our new optimum, we check all candidates
         } else {
 
-            // For each candidate
-            Iterator<Integer> iterator = potentiallyInsufficientUtility.iterator();
-            while (iterator.hasNext()) {
-                Integer current = iterator.next();
-
-                // Remove the candidate, if it was already pruned in the meantime
-                Transformation currentTransformation = solutionSpace.getTransformation(current);
-                if (currentTransformation.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
-                    iterator.remove();
+            // For each candidate with a lower bound that is not better than the optimum
+            while (potentiallyInsufficientUtility.hasPrunable(optimalInfoLoss)) {
 
-                    // Else, check if we can prune it
-                } else if (optimalInfoLoss.compareTo(currentTransformation.getLowerBound()) <= 0) {
+                // Prune it, if it was not already pruned in the meantime
+                Transformation currentTransformation = solutionSpace.getTransformation(potentiallyInsufficientUtility.poll());
+                if (!currentTransformation.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
                     currentTransformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     currentTransformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
-                    iterator.remove();
+                    statistics.nodePrunedByLowerBound();
                 }
             }
 
             // The current optimum is a future pruning candidate
             if (!node.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(node.getIdentifier(), node.getLowerBound());
+                statistics.pruningCandidates(potentiallyInsufficientUtility.size());
             }
         }
     }
 
+    /**
+     * Releases all resources of the parallel mode
+     */
+    private void shutdownParallelMode() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        this.executor = null;
+        this.checkers = null;
+        this.prefetched = null;
+        this.prefetchBuffer = null;
+    }
+
     /**
      * Returns whether a node should be skipped.
      *
@@ -438,10 +964,11 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // If the trigger applies, skip
         if (trigger.appliesTo(transformation)) {
+            statistics.nodeSkippedByTag();
             return true;
         }
         
-        if (!USE_LOWER_BOUND) {
+        if (!useLowerBound) {
             return false;
         }
 
@@ -455,6 +982,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
             // We skip, if we already know that this node has insufficient utility
             if (transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility())) {
+                statistics.nodeSkippedByTag();
                 return true;
             }
 
@@ -472,6 +1000,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 if (getGlobalOptimum().getInformationLoss().compareTo(lowerBound) <= 0) {
                     transformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                    statistics.nodePrunedByLowerBound();
                     return true;
                 }
             }
@@ -482,20 +1011,25 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     }
 
     /**
-     * Sorts a given array of transformation identifiers.
+     * Sorts a given array of transformation identifiers. The strategy only supports identifiers
+     * within the range of integers, larger solution spaces are traversed in the order of identifiers.
      * 
      * @param array
      */
-    private void sort(final int[] array) {
+    private void sort(final long[] array) {
+        if (!strategyApplicable) {
+            Arrays.sort(array);
+            return;
+        }
         GenericSorting.mergeSort(0, array.length, new IntComparator(){
             @Override
             public int compare(int arg0, int arg1) {
-                return strategy.compare(array[arg0], array[arg1]);
+                return strategy.compare((int)array[arg0], (int)array[arg1]);
             }
         }, new Swapper(){
             @Override
             public void swap(int arg0, int arg1) {
-                int temp = array[arg0];
+                long temp = array[arg0];
                 array[arg0] = array[arg1];
                 array[arg1] = temp;
             }
@@ -504,22 +1038,39 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     }
 
     /**
-     * Sorts pointers to successor nodes according to the strategy.
+     * Sorts pointers to successor nodes according to the strategy. Results are cached in two
+     * generations of bounded size, which are rotated when the current generation is full.
      *
      * @param transformation
      */
-    private int[] getSortedSuccessors(final Transformation transformation) {
+    private long[] getSortedSuccessors(final Transformation transformation) {
         
-        int identifier = (int)transformation.getIdentifier();
-        if (sortedSuccessors[identifier] == null) {
+        // Probe cache
+        long identifier = transformation.getIdentifier();
+        long[] result = sortedSuccessors.get(identifier);
+        if (result != null) {
+            return result;
+        }
+
+        // Probe previous generation or compute
+        result = sortedSuccessorsPrevious.get(identifier);
+        if (result == null) {
             LongArrayList list = transformation.getSuccessors();
-            int[] result = new int[list.size()];
-            for (int i=0; i<list.size(); i++) {
-                result[i] = (int)list.getQuick(i);
-            }
+            result = new long[list.size()];
+            System.arraycopy(list.elements(), 0, result, 0, list.size());
             sort(result);
-            sortedSuccessors[identifier] = result;
         }
-        return sortedSuccessors[identifier];
+
+        // Rotate generations, if the cache is full
+        if (sortedSuccessors.size() >= SUCCESSOR_CACHE_SIZE) {
+            LongObjectOpenHashMap<long[]> temp = sortedSuccessorsPrevious;
+            sortedSuccessorsPrevious = sortedSuccessors;
+            sortedSuccessors = temp;
+            sortedSuccessors.clear();
+        }
+
+        // Store
+        sortedSuccessors.put(identifier, result);
+        return result;
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * Listener that is informed about the progress of FLASH and that may cancel the search.
+ * When the search is stopped early, the best transformation found so far is returned
+ * as the global optimum.
+ *
+ * @author Fabian Prasser
+ */
+public interface FLASHListener {
+
+    /**
+     * Returns whether the search should be stopped as soon as possible
+     *
+     * @return
+     */
+    public boolean isCancelled();
+
+    /**
+     * Called whenever a better global optimum has been found
+     *
+     * @param generalization
+     * @param informationLoss
+     */
+    public void optimumFound(int[] generalization, InformationLoss<?> informationLoss);
+
+    /**
+     * Called when the search has been stopped before the solution space has been exhausted,
+     * because it has been cancelled or because the time limit has been reached. The lower bound
+     * is the minimum of the lower bounds of all outstanding pruning candidates and of all
+     * transformations that have not yet been processed, which bounds the information loss of
+     * all transformations that have not been considered. Together with the information loss
+     * of the optimum, it bounds the gap to the actual optimum.
+     *
+     * @param generalization The generalization of the optimum found so far, null if there is none
+     * @param informationLoss The information loss of the optimum found so far, null if there is none
+     * @param lowerBound The lower bound, null if the bound of any outstanding transformation is unknown
+     */
+    public void searchStopped(int[] generalization, InformationLoss<?> informationLoss, InformationLoss<?> lowerBound);
+}
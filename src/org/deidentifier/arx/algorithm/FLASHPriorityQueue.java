@@ -0,0 +1,253 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.PriorityQueue;
+
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+import cern.colt.GenericSorting;
+import cern.colt.Swapper;
+import cern.colt.function.IntComparator;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
+import de.linearbits.jhpl.JHPLIterator.LongIterator;
+
+/**
+ * A priority queue of transformation identifiers, ordered according to a FLASH strategy.
+ * The strategy orders transformations by level first. When a transformation from a level is
+ * enqueued for the first time, all transformations on this level are sorted once and their ranks
+ * are stored in a map, which means that memory is only required for levels that are visited by
+ * the search. The heap itself consists of parallel primitive arrays of identifiers and keys, which
+ * means that enqueueing and polling transformations does neither box integers nor call the
+ * comparator. The strategy only supports identifiers within the range of integers. In larger
+ * solution spaces, transformations on the same level are polled in the order in which they
+ * have been enqueued.
+ *
+ * @author Fabian Prasser
+ */
+public class FLASHPriorityQueue {
+
+    /** Initial capacity of the heap */
+    private static final int              INITIAL_CAPACITY = 64;
+
+    /** The solution space */
+    private final SolutionSpace           solutionSpace;
+
+    /** The strategy */
+    private final FLASHStrategy           strategy;
+
+    /** Rank of each transformation within its level, for all levels that have been ranked */
+    private final LongIntOpenHashMap      ranks;
+
+    /** Whether the ranks of a level have been computed */
+    private final boolean[]               ranked;
+
+    /** Buffer for sorting levels */
+    private final LongArrayList           buffer;
+
+    /** Number of transformations enqueued, used as ranks if the strategy cannot be applied */
+    private int                           sequence;
+
+    /** The identifiers in the heap */
+    private long[]                        identifiers;
+
+    /** The keys of the identifiers in the heap: level in the upper, rank in the lower 32 bits */
+    private long[]                        keys;
+
+    /** The number of elements in the heap */
+    private int                           size;
+
+    /** The previous implementation, null if the primitive heap is used */
+    private final PriorityQueue<Integer>  legacy;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param solutionSpace
+     * @param strategy
+     * @param primitive Whether the primitive heap should be used instead of java.util.PriorityQueue. It is
+     *                  always used if identifiers exceed the range of integers.
+     */
+    public FLASHPriorityQueue(SolutionSpace solutionSpace, FLASHStrategy strategy, boolean primitive) {
+        this.solutionSpace = solutionSpace;
+        this.strategy = strategy;
+        if (primitive || solutionSpace.getSize() > Integer.MAX_VALUE) {
+            this.ranks = solutionSpace.getSize() <= Integer.MAX_VALUE ? new LongIntOpenHashMap() : null;
+            this.ranked = new boolean[solutionSpace.getTop().getLevel() + 1];
+            this.buffer = new LongArrayList();
+            this.identifiers = new long[INITIAL_CAPACITY];
+            this.keys = new long[INITIAL_CAPACITY];
+            this.legacy = null;
+        } else {
+            this.ranks = null;
+            this.ranked = null;
+            this.buffer = null;
+            this.legacy = new PriorityQueue<Integer>(solutionSpace.getTop().getLevel() + 1, strategy);
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Enqueues the given transformation
+     *
+     * @param transformation
+     */
+    public void add(Transformation transformation) {
+
+        // Legacy
+        long id = transformation.getIdentifier();
+        if (legacy != null) {
+            legacy.add((int) id);
+            return;
+        }
+
+        // Prepare
+        int level = transformation.getLevel();
+        int rank;
+        if (ranks == null) {
+            rank = sequence++;
+        } else {
+            if (!ranked[level]) {
+                rank(level);
+            }
+            rank = ranks.get(id);
+        }
+        long key = ((long) level << 32) | (rank & 0xffffffffL);
+
+        // Grow
+        if (size == identifiers.length) {
+            int capacity = identifiers.length << 1;
+            long[] _identifiers = new long[capacity];
+            long[] _keys = new long[capacity];
+            System.arraycopy(identifiers, 0, _identifiers, 0, size);
+            System.arraycopy(keys, 0, _keys, 0, size);
+            identifiers = _identifiers;
+            keys = _keys;
+        }
+
+        // Sift up
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            identifiers[index] = identifiers[parent];
+            keys[index] = keys[parent];
+            index = parent;
+        }
+        identifiers[index] = id;
+        keys[index] = key;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return legacy != null ? legacy.isEmpty() : size == 0;
+    }
+
+    /**
+     * Removes and returns the identifier of the transformation with the highest priority
+     *
+     * @return
+     */
+    public long poll() {
+
+        // Legacy
+        if (legacy != null) {
+            return legacy.poll();
+        }
+
+        // Check
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+
+        // Remove head
+        long result = identifiers[0];
+        size--;
+        if (size == 0) {
+            return result;
+        }
+
+        // Sift down the last element
+        long id = identifiers[size];
+        long key = keys[size];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && keys[right] < keys[child]) {
+                child = right;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            identifiers[index] = identifiers[child];
+            keys[index] = keys[child];
+            index = child;
+        }
+        identifiers[index] = id;
+        keys[index] = key;
+        return result;
+    }
+
+    /**
+     * Computes the ranks of all transformations on the given level
+     *
+     * @param level
+     */
+    private void rank(int level) {
+
+        // Collect
+        buffer.clear();
+        for (LongIterator iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
+            buffer.add(iter.next());
+        }
+
+        // Sort
+        final long[] array = buffer.buffer;
+        GenericSorting.mergeSort(0, buffer.elementsCount, new IntComparator() {
+            @Override
+            public int compare(int arg0, int arg1) {
+                return strategy.compare((int) array[arg0], (int) array[arg1]);
+            }
+        }, new Swapper() {
+            @Override
+            public void swap(int arg0, int arg1) {
+                long temp = array[arg0];
+                array[arg0] = array[arg1];
+                array[arg1] = temp;
+            }
+        });
+
+        // Store
+        for (int i = 0; i < buffer.elementsCount; i++) {
+            ranks.put(array[i], i);
+        }
+        ranked[level] = true;
+    }
+}
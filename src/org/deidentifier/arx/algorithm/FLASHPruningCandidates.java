@@ -0,0 +1,222 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * Candidates for pruning transformations with insufficient utility. The candidates are stored
+ * in a max-heap of identifiers which is ordered by their lower bounds. When a new optimum is found,
+ * all candidates that can be pruned are at the top of the heap and can be removed until the first
+ * candidate with a lower bound that is better than the optimum is encountered.
+ *
+ * @author Fabian Prasser
+ */
+public class FLASHPruningCandidates {
+
+    /** Initial capacity of the heap */
+    private static final int     INITIAL_CAPACITY = 64;
+
+    /** The identifiers in the heap */
+    private long[]               identifiers;
+
+    /** The lower bounds of the identifiers in the heap */
+    private InformationLoss<?>[] bounds;
+
+    /** The number of elements in the heap */
+    private int                  size;
+
+    /**
+     * Creates a new instance.
+     */
+    public FLASHPruningCandidates() {
+        this.identifiers = new long[INITIAL_CAPACITY];
+        this.bounds = new InformationLoss<?>[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds a candidate
+     *
+     * @param identifier
+     * @param bound
+     */
+    public void add(long identifier, InformationLoss<?> bound) {
+
+        // Grow
+        if (size == identifiers.length) {
+            int capacity = identifiers.length << 1;
+            long[] _identifiers = new long[capacity];
+            InformationLoss<?>[] _bounds = new InformationLoss<?>[capacity];
+            System.arraycopy(identifiers, 0, _identifiers, 0, size);
+            System.arraycopy(bounds, 0, _bounds, 0, size);
+            identifiers = _identifiers;
+            bounds = _bounds;
+        }
+
+        // Sift up
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (bounds[parent].compareTo(bound) >= 0) {
+                break;
+            }
+            identifiers[index] = identifiers[parent];
+            bounds[index] = bounds[parent];
+            index = parent;
+        }
+        identifiers[index] = identifier;
+        bounds[index] = bound;
+    }
+
+    /**
+     * Removes all candidates
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            bounds[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the smallest lower bound of all candidates, null if there are none. Candidates
+     * which have been pruned in the meantime are only excluded after calling purge().
+     *
+     * @return
+     */
+    public InformationLoss<?> getMinimalBound() {
+
+        // The minimum of a max-heap is one of its leaves
+        InformationLoss<?> result = null;
+        for (int i = size >>> 1; i < size; i++) {
+            if (result == null || bounds[i].compareTo(result) < 0) {
+                result = bounds[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the top-most candidate has a lower bound which is not better than the given
+     * information loss
+     *
+     * @param optimum
+     * @return
+     */
+    public boolean hasPrunable(InformationLoss<?> optimum) {
+        return size > 0 && optimum.compareTo(bounds[0]) <= 0;
+    }
+
+    /**
+     * Removes and returns the candidate with the highest lower bound
+     *
+     * @return
+     */
+    public long poll() {
+
+        // Check
+        if (size == 0) {
+            throw new IllegalStateException("No candidates");
+        }
+
+        // Remove head
+        long result = identifiers[0];
+        size--;
+        if (size == 0) {
+            bounds[0] = null;
+            return result;
+        }
+
+        // Sift down the last element
+        long identifier = identifiers[size];
+        InformationLoss<?> bound = bounds[size];
+        bounds[size] = null;
+        siftDown(0, identifier, bound);
+        return result;
+    }
+
+    /**
+     * Removes all candidates which have been pruned in the meantime, e.g. because they have been
+     * skipped by the search, and restores the heap
+     *
+     * @param solutionSpace
+     */
+    public void purge(SolutionSpace solutionSpace) {
+
+        // Remove
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            Transformation transformation = solutionSpace.getTransformation(identifiers[i]);
+            if (!transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility()) &&
+                !transformation.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
+                identifiers[count] = identifiers[i];
+                bounds[count] = bounds[i];
+                count++;
+            }
+        }
+        for (int i = count; i < size; i++) {
+            bounds[i] = null;
+        }
+
+        // Restore
+        if (count != size) {
+            size = count;
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i, identifiers[i], bounds[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of candidates
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Stores the given element at the given index or below, restoring the heap
+     *
+     * @param index
+     * @param identifier
+     * @param bound
+     */
+    private void siftDown(int index, long identifier, InformationLoss<?> bound) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && bounds[right].compareTo(bounds[child]) > 0) {
+                child = right;
+            }
+            if (bound.compareTo(bounds[child]) >= 0) {
+                break;
+            }
+            identifiers[index] = identifiers[child];
+            bounds[index] = bounds[child];
+            index = child;
+        }
+        identifiers[index] = identifier;
+        bounds[index] = bound;
+    }
+}
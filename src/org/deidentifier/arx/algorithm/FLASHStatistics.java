@@ -0,0 +1,256 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+
+/**
+ * Counters collected while searching for the optimal transformation. Optionally, every check
+ * is written to a trace file, one line per check, which contains the order of the check,
+ * the transformation, the phase and the latency in nanoseconds.<br>
+ * <br>
+ * The counters are owned by the run of the search algorithm. The result of the anonymization
+ * only shares the solution space with the run, which is why the counters are registered for it.
+ *
+ * @author Fabian Prasser
+ */
+public class FLASHStatistics {
+
+    /** Header of the trace file */
+    private static final String TRACE_HEADER = "order;identifier;generalization;phase;latency";
+
+    /** Statistics of each run, registered for its solution space */
+    private static final Map<SolutionSpace, FLASHStatistics> RUNS = new WeakHashMap<SolutionSpace, FLASHStatistics>();
+
+    /**
+     * Returns the statistics of the run that has searched the given solution space, null if there are none
+     * @param solutionSpace
+     * @return
+     */
+    public static synchronized FLASHStatistics getStatistics(SolutionSpace solutionSpace) {
+        return RUNS.get(solutionSpace);
+    }
+
+    /**
+     * Creates the statistics for a run that searches the given solution space
+     * @param solutionSpace
+     * @return
+     */
+    static synchronized FLASHStatistics create(SolutionSpace solutionSpace) {
+        FLASHStatistics statistics = new FLASHStatistics();
+        RUNS.put(solutionSpace, statistics);
+        return statistics;
+    }
+
+    /** The number of checked transformations */
+    private long                nodesChecked;
+
+    /** The number of transformations for which information loss has only been evaluated */
+    private long                nodesEvaluated;
+
+    /** The number of transformations skipped because of their tags */
+    private long                nodesSkippedByTag;
+
+    /** The number of transformations pruned because of their lower bounds */
+    private long                nodesPrunedByLowerBound;
+
+    /** Time spent in the binary phase in nanoseconds, excluding the linear phase */
+    private long                timeBinaryPhase;
+
+    /** Time spent in the linear phase in nanoseconds */
+    private long                timeLinearPhase;
+
+    /** Maximal size of the list of pruning candidates */
+    private int                 maxPruningCandidates;
+
+    /** The trace, null if tracing is disabled */
+    private Writer              trace;
+
+    /**
+     * Returns the maximal size of the list of pruning candidates
+     * @return
+     */
+    public int getMaxPruningCandidates() {
+        return maxPruningCandidates;
+    }
+
+    /**
+     * Returns the number of checked transformations
+     * @return
+     */
+    public long getNodesChecked() {
+        return nodesChecked;
+    }
+
+    /**
+     * Returns the number of transformations for which information loss has only been evaluated
+     * @return
+     */
+    public long getNodesEvaluated() {
+        return nodesEvaluated;
+    }
+
+    /**
+     * Returns the number of transformations pruned because of their lower bounds
+     * @return
+     */
+    public long getNodesPrunedByLowerBound() {
+        return nodesPrunedByLowerBound;
+    }
+
+    /**
+     * Returns the number of times transformations have been skipped because of their tags
+     * @return
+     */
+    public long getNodesSkippedByTag() {
+        return nodesSkippedByTag;
+    }
+
+    /**
+     * Returns the time spent in the binary phase in nanoseconds, excluding the linear phase
+     * @return
+     */
+    public long getTimeBinaryPhase() {
+        return timeBinaryPhase;
+    }
+
+    /**
+     * Returns the time spent in the linear phase in nanoseconds
+     * @return
+     */
+    public long getTimeLinearPhase() {
+        return timeLinearPhase;
+    }
+
+    @Override
+    public String toString() {
+        return "FLASHStatistics [nodesChecked=" + nodesChecked + ", nodesEvaluated=" + nodesEvaluated +
+               ", nodesSkippedByTag=" + nodesSkippedByTag + ", nodesPrunedByLowerBound=" + nodesPrunedByLowerBound +
+               ", timeBinaryPhase=" + timeBinaryPhase + ", timeLinearPhase=" + timeLinearPhase +
+               ", maxPruningCandidates=" + maxPruningCandidates + "]";
+    }
+
+    /**
+     * Adds time spent in the binary phase
+     * @param time
+     */
+    void addTimeBinaryPhase(long time) {
+        this.timeBinaryPhase += time;
+    }
+
+    /**
+     * Adds time spent in the linear phase
+     * @param time
+     */
+    void addTimeLinearPhase(long time) {
+        this.timeLinearPhase += time;
+    }
+
+    /**
+     * Closes the trace, if any
+     */
+    void closeTrace() {
+        if (trace != null) {
+            try {
+                trace.close();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                trace = null;
+            }
+        }
+    }
+
+    /**
+     * Counts a checked transformation and writes it to the trace, if any
+     * @param identifier
+     * @param generalization
+     * @param phase
+     * @param latency
+     */
+    void nodeChecked(long identifier, int[] generalization, String phase, long latency) {
+        nodesChecked++;
+        if (trace != null) {
+            try {
+                trace.write(nodesChecked + ";" + identifier + ";" + Arrays.toString(generalization) + ";" + phase + ";" + latency + "\n");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Counts a transformation for which information loss has only been evaluated
+     */
+    void nodeEvaluated() {
+        nodesEvaluated++;
+    }
+
+    /**
+     * Counts a transformation pruned because of its lower bound
+     */
+    void nodePrunedByLowerBound() {
+        nodesPrunedByLowerBound++;
+    }
+
+    /**
+     * Counts transformations pruned because of their lower bounds
+     * @param count
+     */
+    void nodesPrunedByLowerBound(int count) {
+        nodesPrunedByLowerBound += count;
+    }
+
+    /**
+     * Counts a transformation skipped because of its tags
+     */
+    void nodeSkippedByTag() {
+        nodesSkippedByTag++;
+    }
+
+    /**
+     * Opens the trace file
+     * @param file
+     */
+    void openTrace(String file) {
+        try {
+            trace = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+            trace.write(TRACE_HEADER + "\n");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot write trace file: " + file, e);
+        }
+    }
+
+    /**
+     * Updates the maximal size of the list of pruning candidates
+     * @param size
+     */
+    void pruningCandidates(int size) {
+        this.maxPruningCandidates = Math.max(this.maxPruningCandidates, size);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Carries the optimum of a run of FLASH into the next run on a solution space of the same shape,
+ * e.g. when sweeping over parameters of the privacy model. The previous optimum is checked first,
+ * which provides an early bound for pruning transformations with insufficient utility.<br>
+ * <br>
+ * The information loss of the optimum equals the one found by a run without warm start. If several
+ * transformations have optimal information loss, however, the run may return a different one of them,
+ * because ties are broken by the order in which transformations are checked and transformations with
+ * a lower bound equal to the early bound are pruned.
+ *
+ * @author Fabian Prasser
+ */
+public class FLASHWarmStart {
+
+    /** Generalization of the bottom transformation of the previous run */
+    private int[] bottom;
+
+    /** Generalization of the top transformation of the previous run */
+    private int[] top;
+
+    /** Generalization of the optimum of the previous run */
+    private int[] optimum;
+
+    /**
+     * Creates a new instance
+     */
+    public FLASHWarmStart() {
+        // Empty by design
+    }
+
+    /**
+     * Returns the optimum of the previous run, if it was performed on a solution space
+     * of the same shape. Returns null otherwise.
+     *
+     * @param bottom
+     * @param top
+     * @return
+     */
+    int[] getOptimum(int[] bottom, int[] top) {
+        if (optimum == null || !Arrays.equals(this.bottom, bottom) || !Arrays.equals(this.top, top)) {
+            return null;
+        }
+        return optimum;
+    }
+
+    /**
+     * Stores the optimum of a run
+     *
+     * @param bottom
+     * @param top
+     * @param optimum May be null
+     */
+    void update(int[] bottom, int[] top, int[] optimum) {
+        this.bottom = bottom.clone();
+        this.top = top.clone();
+        this.optimum = optimum == null ? null : optimum.clone();
+    }
+}
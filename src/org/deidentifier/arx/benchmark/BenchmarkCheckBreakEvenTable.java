@@ -0,0 +1,95 @@
+/*
+ * Benchmark of ARX's implementation of the game theoretic approach proposed in:
+ * A Game Theoretic Framework for Analyzing Re-Identification Risk.
+ * Zhiyu Wan, Yevgeniy Vorobeychik, Weiyi Xia, Ellen Wright Clayton,
+ * Murat Kantarcioglu, Ranjit Ganta, Raymond Heatherly, Bradley A. Malin
+ * PLOS|ONE. 2015.
+ *
+ * Copyright 2017 - Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.benchmark;
+
+import java.util.Random;
+
+import org.deidentifier.arx.ARXCostBenefitConfiguration;
+import org.deidentifier.arx.criteria.ProfitabilityBreakEvenTable;
+import org.deidentifier.arx.risk.RiskModelCostBenefit;
+
+/**
+ * Checks that the break-even tables of the profitability models take the same decisions as the
+ * direct evaluation of the risk model, across cost/benefit configurations, thresholds, class sizes
+ * and information loss.
+ *
+ * @author Fabian Prasser
+ */
+public abstract class BenchmarkCheckBreakEvenTable {
+
+    /** Largest class size to check, covers sizes beyond the table */
+    private static final int    MAX_SIZE      = 2048;
+
+    /** Number of equidistant values of information loss to check */
+    private static final int    STEPS         = 200;
+
+    /** Number of random values of information loss to check */
+    private static final int    SAMPLES       = 200;
+
+    /**
+     * Main
+     * @param args
+     */
+    public static void main(String[] args) {
+
+        long checked = 0;
+        long mismatches = 0;
+
+        // Vary gain and loss, as in experiment 2, and the publisher's benefit
+        for (double gainLoss : BenchmarkSetup.getParametersGainLoss()) {
+            for (double benefit : BenchmarkSetup.getParametersPublisherBenefit()) {
+                ARXCostBenefitConfiguration config = ARXCostBenefitConfiguration.create()
+                                                                                .setAdversaryCost(BenchmarkSetup.getDefaultAdversaryCost())
+                                                                                .setAdversaryGain(gainLoss)
+                                                                                .setPublisherLoss(gainLoss)
+                                                                                .setPublisherBenefit(benefit);
+                RiskModelCostBenefit model = new RiskModelCostBenefit(config);
+
+                // Thresholds of the prosecutor and the journalist model
+                for (double threshold : new double[] { 0d, 0.5d * benefit }) {
+                    ProfitabilityBreakEvenTable table = new ProfitabilityBreakEvenTable(model, threshold);
+                    Random random = new Random(0xDEADBEEF);
+                    for (int size = 1; size <= MAX_SIZE; size++) {
+                        for (int step = 0; step <= STEPS + SAMPLES; step++) {
+                            double loss = step <= STEPS ? (double) step / STEPS : random.nextDouble();
+                            boolean expected = model.getExpectedPublisherPayout(loss, 1d / size) > threshold;
+                            if (table.isProfitable(loss, size) != expected) {
+                                if (mismatches < 10) {
+                                    System.out.println(" - Mismatch: " + config + ", threshold = " + threshold +
+                                                       ", size = " + size + ", loss = " + loss);
+                                }
+                                mismatches++;
+                            }
+                            checked++;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Report
+        System.out.println("Checked: " + checked + ", mismatches: " + mismatches);
+        if (mismatches != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -22,6 +22,7 @@
 package org.deidentifier.arx.benchmark;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -40,16 +41,17 @@ import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.Data;
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataSubset;
-import org.deidentifier.arx.algorithm.FLASHAlgorithmImpl;
+import org.deidentifier.arx.algorithm.FLASHStatistics;
+import org.deidentifier.arx.algorithm.FLASHWarmStart;
 import org.deidentifier.arx.criteria.AverageReidentificationRisk;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.ProfitabilityJournalist;
 import org.deidentifier.arx.criteria.ProfitabilityProsecutor;
 import org.deidentifier.arx.exceptions.RollbackRequiredException;
+import org.deidentifier.arx.framework.data.DataManagerCache;
 import org.deidentifier.arx.metric.Metric;
 import org.deidentifier.arx.metric.v2.MetricMDNUNMNormalizedEntropyPotentiallyPrecomputed;
-import org.deidentifier.arx.metric.v2.MetricSDNMEntropyBasedInformationLoss;
 import org.deidentifier.arx.metric.v2.MetricSDNMKLDivergence;
 
 
@@ -64,6 +66,9 @@ import org.deidentifier.arx.metric.v2.MetricSDNMKLDivergence;
  */
 public class BenchmarkExperiment {
 
+    /** Structures derived from the data, shared between all runs on the same dataset */
+    private static final DataManagerCache DATA_MANAGER_CACHE = new DataManagerCache(8);
+
     /**
      * Perform benchmark run
      * @param data
@@ -76,6 +81,7 @@ public class BenchmarkExperiment {
 
         double payout = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(Metric.createPublisherPayoutMetric(false));
         config.setMaxOutliers(1d);
@@ -100,6 +106,7 @@ public class BenchmarkExperiment {
 
         double quality = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(metric);
         config.setMaxOutliers(1d);
@@ -129,6 +136,7 @@ public class BenchmarkExperiment {
 
         double payout = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(Metric.createPublisherPayoutMetric(false));
         config.setMaxOutliers(1d);
@@ -149,10 +157,24 @@ public class BenchmarkExperiment {
      * @throws IOException 
      */
     public static double getCostBenefitPayout(Data data, ARXCostBenefitConfiguration configuration) throws IOException {
+        return getCostBenefitPayout(data, configuration, (FLASHWarmStart)null);
+    }
+
+    /**
+     * Perform benchmark run
+     * @param data
+     * @param configuration
+     * @param warmStart State carried across runs of a parameter sweep, may be null
+     * @return
+     * @throws IOException 
+     */
+    public static double getCostBenefitPayout(Data data, ARXCostBenefitConfiguration configuration, FLASHWarmStart warmStart) throws IOException {
 
         double payout = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
+        config.setWarmStart(warmStart);
         config.setQualityModel(Metric.createPublisherPayoutMetric(false));
         config.setMaxOutliers(1d);
         config.addPrivacyModel(new ProfitabilityProsecutor());
@@ -175,6 +197,7 @@ public class BenchmarkExperiment {
 
         // Optimize for quality model
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(metric);
         config.setMaxOutliers(1d);
@@ -185,6 +208,7 @@ public class BenchmarkExperiment {
         
         // Return associated payout
         config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(Metric.createPublisherPayoutMetric(false));
         config.setMaxOutliers(1d);
@@ -212,6 +236,7 @@ public class BenchmarkExperiment {
 
         double quality = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(metric);
         config.setMaxOutliers(1d);
@@ -252,15 +277,47 @@ public class BenchmarkExperiment {
      * @throws IOException 
      */
     public static double getExecutionTime(Data data, ARXCostBenefitConfiguration configuration, boolean pruning, boolean expressionSimplification) throws IOException {
+        return getExecutionTime(data, configuration, pruning, expressionSimplification, 1);
+    }
+
+    /**
+     * Perform benchmark run
+     * @param data
+     * @param configuration
+     * @param pruning
+     * @param expressionSimplification
+     * @param threads
+     * @return
+     * @throws IOException 
+     */
+    public static double getExecutionTime(Data data, ARXCostBenefitConfiguration configuration, boolean pruning, boolean expressionSimplification, int threads) throws IOException {
+        return getExecutionTime(data, configuration, pruning, expressionSimplification, true, threads);
+    }
+
+    /**
+     * Perform benchmark run
+     * @param data
+     * @param configuration
+     * @param pruning
+     * @param expressionSimplification
+     * @param primitiveQueue
+     * @param threads
+     * @return
+     * @throws IOException 
+     */
+    public static double getExecutionTime(Data data, ARXCostBenefitConfiguration configuration, boolean pruning, boolean expressionSimplification, boolean primitiveQueue, int threads) throws IOException {
 
-        MetricSDNMEntropyBasedInformationLoss.OPTIMIZED = expressionSimplification;
         double result = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(Metric.createPublisherPayoutMetric(false));
         config.setMaxOutliers(1d);
+        config.setNumberOfThreads(threads);
+        config.setLowerBoundPruningEnabled(pruning);
+        config.setExpressionSimplificationEnabled(expressionSimplification);
+        config.setPrimitivePriorityQueueEnabled(primitiveQueue);
         config.addPrivacyModel(new ProfitabilityProsecutor());
-        FLASHAlgorithmImpl.USE_LOWER_BOUND = pruning;
         ARXAnonymizer anonymizer = new ARXAnonymizer();
         long time = System.nanoTime();
         anonymizer.anonymize(data, config);
@@ -270,6 +327,89 @@ public class BenchmarkExperiment {
         return result;
     }
 
+    /**
+     * Perform benchmark run and return the statistics collected by the search algorithm
+     * @param data
+     * @param configuration
+     * @param pruning
+     * @param expressionSimplification
+     * @return
+     * @throws IOException 
+     */
+    public static FLASHStatistics getSearchStatistics(Data data, ARXCostBenefitConfiguration configuration, boolean pruning, boolean expressionSimplification) throws IOException {
+        return getSearchStatistics(data, configuration, pruning, expressionSimplification, Metric.createPublisherPayoutMetric(false));
+    }
+
+    /**
+     * Perform benchmark run with the given quality model and return the statistics collected by the search algorithm
+     * @param data
+     * @param configuration
+     * @param pruning
+     * @param expressionSimplification
+     * @param metric
+     * @return
+     * @throws IOException 
+     */
+    public static FLASHStatistics getSearchStatistics(Data data, ARXCostBenefitConfiguration configuration, boolean pruning, boolean expressionSimplification, Metric<?> metric) throws IOException {
+
+        ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
+        config.setCostBenefitConfiguration(configuration);
+        config.setQualityModel(metric);
+        config.setMaxOutliers(1d);
+        config.setLowerBoundPruningEnabled(pruning);
+        config.setExpressionSimplificationEnabled(expressionSimplification);
+        config.addPrivacyModel(new ProfitabilityProsecutor());
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        ARXResult result = anonymizer.anonymize(data, config);
+        FLASHStatistics statistics = result.getSearchStatistics();
+        data.getHandle().release();
+        return statistics;
+    }
+
+    /**
+     * Perform benchmark run with k-anonymity, which is monotonic and thus
+     * exercises the binary phase of FLASH
+     * @param data
+     * @param k
+     * @param primitiveQueue
+     * @return
+     * @throws IOException 
+     */
+    public static double getExecutionTime(Data data, int k, boolean primitiveQueue) throws IOException {
+
+        ARXConfiguration config = getKAnonymityConfiguration(k);
+        config.setPrimitivePriorityQueueEnabled(primitiveQueue);
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        long time = System.nanoTime();
+        anonymizer.anonymize(data, config);
+        time = System.nanoTime() - time;
+        data.getHandle().release();
+        return (double)time / 1000000d;
+    }
+
+    /**
+     * Perform benchmark run with k-anonymity and return the number of bytes
+     * allocated by the current thread
+     * @param data
+     * @param k
+     * @param primitiveQueue
+     * @return
+     * @throws IOException 
+     */
+    public static double getAllocatedBytes(Data data, int k, boolean primitiveQueue) throws IOException {
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        ARXConfiguration config = getKAnonymityConfiguration(k);
+        config.setPrimitivePriorityQueueEnabled(primitiveQueue);
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        long bytes = bean.getThreadAllocatedBytes(thread);
+        anonymizer.anonymize(data, config);
+        bytes = bean.getThreadAllocatedBytes(thread) - bytes;
+        data.getHandle().release();
+        return (double)bytes;
+    }
 
     /**
      * Extracts a data subset
@@ -310,6 +450,7 @@ public class BenchmarkExperiment {
 
         double payout = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(Metric.createPublisherPayoutMetric(false));
         config.setMaxOutliers(1d);
@@ -342,6 +483,7 @@ public class BenchmarkExperiment {
 
         double quality = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(metric);
         config.setMaxOutliers(1d);
@@ -380,6 +522,7 @@ public class BenchmarkExperiment {
 
         double payout = 0d;
         ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
         config.setCostBenefitConfiguration(configuration);
         config.setQualityModel(Metric.createPublisherPayoutMetric(true, 0.05d));
         config.setMaxOutliers(1d);
@@ -413,6 +556,7 @@ public class BenchmarkExperiment {
         for (int record=0; record<data.getHandle().getNumRows(); record++) {
             
             ARXConfiguration config = ARXConfiguration.create();
+            config.setDataManagerCache(DATA_MANAGER_CACHE);
             config.setCostBenefitConfiguration(configuration);
             config.setQualityModel(Metric.createPublisherPayoutMetric(true));
             config.setMaxOutliers(1d);
@@ -429,6 +573,20 @@ public class BenchmarkExperiment {
         return payout / (data.getHandle().getNumRows() * configuration.getPublisherBenefit());
     }
 
+    /**
+     * Returns a configuration for k-anonymity
+     * @param k
+     * @return
+     */
+    private static ARXConfiguration getKAnonymityConfiguration(int k) {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.setDataManagerCache(DATA_MANAGER_CACHE);
+        config.setQualityModel(Metric.createLossMetric());
+        config.setMaxOutliers(0d);
+        config.addPrivacyModel(new KAnonymity(k));
+        return config;
+    }
+
     /**
      * Returns a set including all records
      * @param data
@@ -26,6 +26,7 @@ import java.io.IOException;
 
 import org.deidentifier.arx.ARXCostBenefitConfiguration;
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.algorithm.FLASHWarmStart;
 import org.deidentifier.arx.benchmark.BenchmarkSetup.BenchmarkDataset;
 
 import cern.colt.Arrays;
@@ -90,11 +91,13 @@ public abstract class BenchmarkExperiment1 extends BenchmarkExperiment {
                                                                         .setPublisherBenefit(BenchmarkSetup.getDefaultPublisherBenefit());
 
         double[] parameters = BenchmarkSetup.getParametersAdversaryCost();
+
+        FLASHWarmStart warmStart = new FLASHWarmStart();
         for (double parameter : parameters) {
             config.setAdversaryCost(parameter);
             System.out.println(" - Adversary cost - " + parameter + " - " + Arrays.toString(parameters));
             BENCHMARK.addRun(config.getAdversaryCost(), config.getAdversaryGain(), config.getPublisherLoss(), config.getPublisherBenefit());
-            analyze(dataset, config);
+            analyze(dataset, config, warmStart);
             BENCHMARK.getResults().write(new File("results/"+dataset.toString()+"-experiment1.csv"));
         }
 
@@ -105,11 +108,13 @@ public abstract class BenchmarkExperiment1 extends BenchmarkExperiment {
                                             .setPublisherBenefit(BenchmarkSetup.getDefaultPublisherBenefit());
 
         parameters = BenchmarkSetup.getParametersAdversaryGain();
+
+        warmStart = new FLASHWarmStart();
         for (double parameter : parameters) {
             config.setAdversaryGain(parameter);
             System.out.println(" - Adversary gain - " + parameter + " - " + Arrays.toString(parameters));
             BENCHMARK.addRun(config.getAdversaryCost(), config.getAdversaryGain(), config.getPublisherLoss(), config.getPublisherBenefit());
-            analyze(dataset, config);
+            analyze(dataset, config, warmStart);
             BENCHMARK.getResults().write(new File("results/"+dataset.toString()+"-experiment1.csv"));
         }
 
@@ -120,11 +125,13 @@ public abstract class BenchmarkExperiment1 extends BenchmarkExperiment {
                                             .setPublisherBenefit(BenchmarkSetup.getDefaultPublisherBenefit());
 
         parameters = BenchmarkSetup.getParametersPublisherLoss();
+
+        warmStart = new FLASHWarmStart();
         for (double parameter : parameters) {
             config.setPublisherLoss(parameter);
             System.out.println(" - Publisher loss - " + parameter + " - " + Arrays.toString(parameters));
             BENCHMARK.addRun(config.getAdversaryCost(), config.getAdversaryGain(), config.getPublisherLoss(), config.getPublisherBenefit());
-            analyze(dataset, config);
+            analyze(dataset, config, warmStart);
             BENCHMARK.getResults().write(new File("results/"+dataset.toString()+"-experiment1.csv"));
         }
 
@@ -135,11 +142,13 @@ public abstract class BenchmarkExperiment1 extends BenchmarkExperiment {
                                             .setPublisherBenefit(BenchmarkSetup.getDefaultPublisherBenefit());
 
         parameters = BenchmarkSetup.getParametersPublisherBenefit();
+
+        warmStart = new FLASHWarmStart();
         for (double parameter : parameters) {
             config.setPublisherBenefit(parameter);
             System.out.println(" - Publisher benefit - " + parameter + " - " + Arrays.toString(parameters));
             BENCHMARK.addRun(config.getAdversaryCost(), config.getAdversaryGain(), config.getPublisherLoss(), config.getPublisherBenefit());
-            analyze(dataset, config);
+            analyze(dataset, config, warmStart);
             BENCHMARK.getResults().write(new File("results/"+dataset.toString()+"-experiment1.csv"));
         }
     }
@@ -148,15 +157,16 @@ public abstract class BenchmarkExperiment1 extends BenchmarkExperiment {
      * Run the benchmark
      * @param dataset
      * @param config
+     * @param warmStart
      * @throws IOException
      */
-    private static void analyze(BenchmarkDataset dataset, ARXCostBenefitConfiguration configuration) throws IOException {
+    private static void analyze(BenchmarkDataset dataset, ARXCostBenefitConfiguration configuration, FLASHWarmStart warmStart) throws IOException {
      
         // Load data
         Data data = BenchmarkSetup.getData(dataset);
         
         // Run benchmarks
-        BENCHMARK.addValue(PAYOUT_COST_BENEFIT, getCostBenefitPayout(data, configuration));
+        BENCHMARK.addValue(PAYOUT_COST_BENEFIT, getCostBenefitPayout(data, configuration, warmStart));
         BENCHMARK.addValue(PAYOUT_50_AVG_RISK, getAverageRiskPayout(data, configuration, 0.5d));
         BENCHMARK.addValue(PAYOUT_33_AVG_RISK, getAverageRiskPayout(data, configuration, 0.33d));
         BENCHMARK.addValue(PAYOUT_20_AVG_RISK, getAverageRiskPayout(data, configuration, 0.2d));
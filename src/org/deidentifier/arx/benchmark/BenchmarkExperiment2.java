@@ -26,6 +26,7 @@ import java.io.IOException;
 
 import org.deidentifier.arx.ARXCostBenefitConfiguration;
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.algorithm.FLASHWarmStart;
 import org.deidentifier.arx.benchmark.BenchmarkSetup.BenchmarkDataset;
 
 import cern.colt.Arrays;
@@ -87,12 +88,14 @@ public abstract class BenchmarkExperiment2 extends BenchmarkExperiment {
                                                                         .setPublisherBenefit(BenchmarkSetup.getDefaultPublisherBenefit());
 
         double[] parameters = BenchmarkSetup.getParametersGainLoss();
+
+        FLASHWarmStart warmStart = new FLASHWarmStart();
         for (double parameter : parameters) {
             config.setAdversaryGain(parameter);
             config.setPublisherLoss(parameter);
             System.out.println(" - Adversary gain = publisher loss - " + parameter + " - " + Arrays.toString(parameters));
             BENCHMARK.addRun(config.getAdversaryGain());
-            analyze(dataset, config);
+            analyze(dataset, config, warmStart);
             BENCHMARK.getResults().write(new File("results/"+dataset.toString()+"-experiment2.csv"));
         }
     }
@@ -101,15 +104,16 @@ public abstract class BenchmarkExperiment2 extends BenchmarkExperiment {
      * Run the benchmark
      * @param dataset
      * @param config
+     * @param warmStart
      * @throws IOException
      */
-    private static void analyze(BenchmarkDataset dataset, ARXCostBenefitConfiguration configuration) throws IOException {
+    private static void analyze(BenchmarkDataset dataset, ARXCostBenefitConfiguration configuration, FLASHWarmStart warmStart) throws IOException {
      
         // Load data
         Data data = BenchmarkSetup.getData(dataset);
         
         // Run benchmarks
-        BENCHMARK.addValue(PAYOUT_COST_BENEFIT, getCostBenefitPayout(data, configuration));
+        BENCHMARK.addValue(PAYOUT_COST_BENEFIT, getCostBenefitPayout(data, configuration, warmStart));
         BENCHMARK.addValue(PAYOUT_50_AVG_RISK, getAverageRiskPayout(data, configuration, 0.5d));
         BENCHMARK.addValue(PAYOUT_33_AVG_RISK, getAverageRiskPayout(data, configuration, 0.33d));
         BENCHMARK.addValue(PAYOUT_20_AVG_RISK, getAverageRiskPayout(data, configuration, 0.2d));
@@ -66,6 +66,10 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
     private static final int       TIME_1750   = BENCHMARK.addMeasure("Time-1750");
     /** MEASUREMENT PARAM */
     private static final int       TIME_2000   = BENCHMARK.addMeasure("Time-2000");
+    /** MEASUREMENT PARAM */
+    private static final int       TIME_PARALLEL = BENCHMARK.addMeasure("Time-parallel");
+    /** MEASUREMENT PARAM */
+    private static final int       SPEEDUP = BENCHMARK.addMeasure("Speedup");
     
     /**
      * Main
@@ -95,6 +99,8 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         BENCHMARK.addAnalyzer(TIME_1500, new ValueBuffer());
         BENCHMARK.addAnalyzer(TIME_1750, new ValueBuffer());
         BENCHMARK.addAnalyzer(TIME_2000, new ValueBuffer());
+        BENCHMARK.addAnalyzer(TIME_PARALLEL, new ValueBuffer());
+        BENCHMARK.addAnalyzer(SPEEDUP, new ValueBuffer());
         
         // Setup
         String[] qis = BenchmarkSetup.getQuasiIdentifyingAttributes(dataset);
@@ -152,6 +158,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         data = getExtract(data, qis, records, attributes);
 
         double time = 0d;
+        double sequential = 0d;
 
         // Warmup run
         getExecutionTime(data, configuration, true);
@@ -164,6 +171,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_0, time);
+        sequential += time;
         time = 0d;
 
         // Repetitions
@@ -174,6 +182,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_250, time);
+        sequential += time;
         time = 0d;
 
         // Repetitions
@@ -184,6 +193,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_500, time);
+        sequential += time;
         time = 0d;
 
         // Repetitions
@@ -194,6 +204,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_750, time);
+        sequential += time;
         time = 0d;
 
         // Repetitions
@@ -204,6 +215,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_1000, time);
+        sequential += time;
         time = 0d;
 
         // Repetitions
@@ -214,6 +226,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_1250, time);
+        sequential += time;
         time = 0d;
 
         // Repetitions
@@ -224,6 +237,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_1500, time);
+        sequential += time;
         time = 0d;
 
         // Repetitions
@@ -234,6 +248,7 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_1750, time);
+        sequential += time;
         time = 0d;
 
         // Repetitions
@@ -244,6 +259,24 @@ public abstract class BenchmarkExperiment4 extends BenchmarkExperiment {
         }
         time /= (REPETITIONS*1000d);
         BENCHMARK.addValue(TIME_2000, time);
+        sequential += time;
         time = 0d;
+
+        // Warmup run of the parallel mode
+        int threads = BenchmarkSetup.getNumberOfThreads();
+        double[] parameters = BenchmarkSetup.getParametersGainLoss();
+        getExecutionTime(data, configuration, true, true, threads);
+
+        // Parallel repetitions over all parameters
+        for (double parameter : parameters) {
+            configuration.setAdversaryGain(parameter);
+            configuration.setPublisherLoss(parameter);
+            for (int i=0; i < REPETITIONS; i++) {
+                time += getExecutionTime(data, configuration, true, true, threads); 
+            }
+        }
+        time /= (REPETITIONS*1000d);
+        BENCHMARK.addValue(TIME_PARALLEL, time / parameters.length);
+        BENCHMARK.addValue(SPEEDUP, sequential / time);
     }
 }
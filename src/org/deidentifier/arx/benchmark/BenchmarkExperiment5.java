@@ -26,6 +26,8 @@ import java.io.IOException;
 
 import org.deidentifier.arx.ARXCostBenefitConfiguration;
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.algorithm.FLASHStatistics;
+import org.deidentifier.arx.metric.v2.MetricSDNMEntropyBasedInformationLoss;
 import org.deidentifier.arx.benchmark.BenchmarkSetup.BenchmarkDataset;
 
 import de.linearbits.subframe.Benchmark;
@@ -50,6 +52,28 @@ public abstract class BenchmarkExperiment5 extends BenchmarkExperiment {
     private static final int       MICRO_OPTIMIZATION = BENCHMARK.addMeasure("Expression simplification");
     /** MEASUREMENT PARAMETER */
     private static final int       NO_OPTIMIZATION    = BENCHMARK.addMeasure("Without optimizations");
+    /** MEASUREMENT PARAMETER */
+    private static final int       PARALLEL           = BENCHMARK.addMeasure("With all optimizations, parallel");
+    /** MEASUREMENT PARAMETER */
+    private static final int       PARALLEL_SPEEDUP   = BENCHMARK.addMeasure("Parallel speedup");
+    /** MEASUREMENT PARAMETER */
+    private static final int       NODES_CHECKED      = BENCHMARK.addMeasure("Nodes checked");
+    /** MEASUREMENT PARAMETER */
+    private static final int       NODES_EVALUATED    = BENCHMARK.addMeasure("Nodes evaluated");
+    /** MEASUREMENT PARAMETER */
+    private static final int       NODES_SKIPPED      = BENCHMARK.addMeasure("Nodes skipped by tag");
+    /** MEASUREMENT PARAMETER */
+    private static final int       NODES_PRUNED       = BENCHMARK.addMeasure("Nodes pruned by lower bound");
+    /** MEASUREMENT PARAMETER */
+    private static final int       TIME_BINARY        = BENCHMARK.addMeasure("Time binary phase");
+    /** MEASUREMENT PARAMETER */
+    private static final int       TIME_LINEAR        = BENCHMARK.addMeasure("Time linear phase");
+    /** MEASUREMENT PARAMETER */
+    private static final int       CANDIDATES         = BENCHMARK.addMeasure("Pruning candidates");
+    /** MEASUREMENT PARAMETER */
+    private static final int       ENTROPY_CHECKED    = BENCHMARK.addMeasure("Nodes checked, entropy");
+    /** MEASUREMENT PARAMETER */
+    private static final int       ENTROPY_PRUNED     = BENCHMARK.addMeasure("Nodes pruned by lower bound, entropy");
 
     /**
      * Main
@@ -71,6 +95,17 @@ public abstract class BenchmarkExperiment5 extends BenchmarkExperiment {
         BENCHMARK.addAnalyzer(ALL_OPTIMIZATIONS, new ValueBuffer());
         BENCHMARK.addAnalyzer(MICRO_OPTIMIZATION, new ValueBuffer());
         BENCHMARK.addAnalyzer(NO_OPTIMIZATION, new ValueBuffer());
+        BENCHMARK.addAnalyzer(PARALLEL, new ValueBuffer());
+        BENCHMARK.addAnalyzer(PARALLEL_SPEEDUP, new ValueBuffer());
+        BENCHMARK.addAnalyzer(NODES_CHECKED, new ValueBuffer());
+        BENCHMARK.addAnalyzer(NODES_EVALUATED, new ValueBuffer());
+        BENCHMARK.addAnalyzer(NODES_SKIPPED, new ValueBuffer());
+        BENCHMARK.addAnalyzer(NODES_PRUNED, new ValueBuffer());
+        BENCHMARK.addAnalyzer(TIME_BINARY, new ValueBuffer());
+        BENCHMARK.addAnalyzer(TIME_LINEAR, new ValueBuffer());
+        BENCHMARK.addAnalyzer(CANDIDATES, new ValueBuffer());
+        BENCHMARK.addAnalyzer(ENTROPY_CHECKED, new ValueBuffer());
+        BENCHMARK.addAnalyzer(ENTROPY_PRUNED, new ValueBuffer());
 
         // Perform
         for (double gainloss : BenchmarkSetup.getParametersGainLoss()) {
@@ -143,5 +178,41 @@ public abstract class BenchmarkExperiment5 extends BenchmarkExperiment {
         }
         allOptimizations /= (REPETITIONS * 1000d);
         BENCHMARK.addValue(ALL_OPTIMIZATIONS, allOptimizations);
+
+        // ******************
+        // Search statistics
+        // ******************
+        
+        FLASHStatistics statistics = getSearchStatistics(data, configuration, true, true);
+        BENCHMARK.addValue(NODES_CHECKED, statistics.getNodesChecked());
+        BENCHMARK.addValue(NODES_EVALUATED, statistics.getNodesEvaluated());
+        BENCHMARK.addValue(NODES_SKIPPED, statistics.getNodesSkippedByTag());
+        BENCHMARK.addValue(NODES_PRUNED, statistics.getNodesPrunedByLowerBound());
+        BENCHMARK.addValue(TIME_BINARY, statistics.getTimeBinaryPhase() / 1000000000d);
+        BENCHMARK.addValue(TIME_LINEAR, statistics.getTimeLinearPhase() / 1000000000d);
+        BENCHMARK.addValue(CANDIDATES, statistics.getMaxPruningCandidates());
+
+        // Entropy-based information loss provides bounds for transformations that have not been checked
+        statistics = getSearchStatistics(data, configuration, true, true, new MetricSDNMEntropyBasedInformationLoss());
+        BENCHMARK.addValue(ENTROPY_CHECKED, statistics.getNodesChecked());
+        BENCHMARK.addValue(ENTROPY_PRUNED, statistics.getNodesPrunedByLowerBound());
+
+        // ******************
+        // Parallel
+        // ******************
+        
+        double parallel = 0d;
+        int threads = BenchmarkSetup.getNumberOfThreads();
+
+        // Warmup run
+        getExecutionTime(data, configuration, true, true, threads);
+        
+        // Repetitions
+        for (int i=0; i < REPETITIONS; i++) {
+            parallel += getExecutionTime(data, configuration, true, true, threads); 
+        }
+        parallel /= (REPETITIONS * 1000d);
+        BENCHMARK.addValue(PARALLEL, parallel);
+        BENCHMARK.addValue(PARALLEL_SPEEDUP, allOptimizations / parallel);
     }
 }
@@ -0,0 +1,185 @@
+/*
+ * Benchmark of ARX's implementation of the game theoretic approach proposed in:
+ * A Game Theoretic Framework for Analyzing Re-Identification Risk.
+ * Zhiyu Wan, Yevgeniy Vorobeychik, Weiyi Xia, Ellen Wright Clayton,
+ * Murat Kantarcioglu, Ranjit Ganta, Raymond Heatherly, Bradley A. Malin
+ * PLOS|ONE. 2015.
+ * 
+ * Copyright 2017 - Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.deidentifier.arx.ARXCostBenefitConfiguration;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.benchmark.BenchmarkSetup.BenchmarkDataset;
+
+import de.linearbits.subframe.Benchmark;
+import de.linearbits.subframe.analyzer.ValueBuffer;
+
+/**
+ * Ablation study of the optimizations benchmarked in experiment 5. All combinations of
+ * optimizations are timed concurrently, each on its own copy of the dataset, and the
+ * speedup of each combination over the run without optimizations is reported. The
+ * primitive priority queue is not part of this study, because the binary phase is not
+ * used for profitability models. It is benchmarked with k-anonymity in experiment 8.
+ *
+ * @author Fabian Prasser
+ */
+public abstract class BenchmarkExperiment5Ablation extends BenchmarkExperiment5 {
+
+    /** The optimizations, each of which is represented by one bit of a combination */
+    private static final String[]  OPTIMIZATIONS = new String[] { "Pruning", "Expression simplification" };
+
+    /** The number of combinations */
+    private static final int       COMBINATIONS  = 1 << OPTIMIZATIONS.length;
+
+    /** The benchmark instance */
+    private static final Benchmark BENCHMARK     = new Benchmark(new String[] { "adversary gain = publisher loss" });
+
+    /** MEASUREMENT PARAMETERS */
+    private static final int[]     TIME          = new int[COMBINATIONS];
+
+    /** MEASUREMENT PARAMETERS */
+    private static final int[]     SPEEDUP       = new int[COMBINATIONS];
+
+    static {
+        for (int combination = 0; combination < COMBINATIONS; combination++) {
+            TIME[combination] = BENCHMARK.addMeasure("Time-" + getLabel(combination));
+            SPEEDUP[combination] = BENCHMARK.addMeasure("Speedup-" + getLabel(combination));
+        }
+    }
+
+    /**
+     * Main
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        BenchmarkDataset dataset = BenchmarkSetup.getBenchmarkDataset(args[0]);
+
+        // Perform
+        ARXCostBenefitConfiguration config = ARXCostBenefitConfiguration.create()
+                                                                        .setAdversaryCost(BenchmarkSetup.getDefaultAdversaryCost())
+                                                                        .setAdversaryGain(BenchmarkSetup.getDefaultAdversaryGain())
+                                                                        .setPublisherLoss(BenchmarkSetup.getDefaultPublisherLoss())
+                                                                        .setPublisherBenefit(BenchmarkSetup.getDefaultPublisherBenefit());
+
+        // Init
+        for (int combination = 0; combination < COMBINATIONS; combination++) {
+            BENCHMARK.addAnalyzer(TIME[combination], new ValueBuffer());
+            BENCHMARK.addAnalyzer(SPEEDUP[combination], new ValueBuffer());
+        }
+
+        // Perform
+        for (double gainloss : BenchmarkSetup.getParametersGainLoss()) {
+            config.setAdversaryGain(gainloss);
+            config.setPublisherLoss(gainloss);
+            System.out.println(gainloss);
+            BENCHMARK.addRun(config.getAdversaryGain());
+            analyze(dataset, config);
+            BENCHMARK.getResults().write(new File("results/"+dataset.toString()+"-experiment5-ablation.csv"));
+        }
+    }
+
+    /**
+     * Run the benchmark
+     * @param dataset
+     * @param config
+     * @throws IOException
+     */
+    private static void analyze(final BenchmarkDataset dataset, final ARXCostBenefitConfiguration configuration) throws IOException {
+
+        final int REPETITIONS = BenchmarkSetup.getNumberOfRepetitions(dataset);
+
+        // Time all combinations concurrently
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(COMBINATIONS, BenchmarkSetup.getNumberOfThreads()));
+        double[] times = new double[COMBINATIONS];
+        try {
+            List<Future<Double>> futures = new ArrayList<>();
+            for (int combination = 0; combination < COMBINATIONS; combination++) {
+                final int _combination = combination;
+                futures.add(executor.submit(new Callable<Double>() {
+                    @Override
+                    public Double call() throws IOException {
+
+                        // Each run needs its own handle
+                        Data data = BenchmarkSetup.getData(dataset);
+                        boolean pruning = isEnabled(_combination, 0);
+                        boolean simplification = isEnabled(_combination, 1);
+
+                        // Warmup run
+                        getExecutionTime(data, configuration, pruning, simplification, 1);
+
+                        // Repetitions
+                        double time = 0d;
+                        for (int i = 0; i < REPETITIONS; i++) {
+                            time += getExecutionTime(data, configuration, pruning, simplification, 1);
+                        }
+                        return time / (REPETITIONS * 1000d);
+                    }
+                }));
+            }
+            for (int combination = 0; combination < COMBINATIONS; combination++) {
+                times[combination] = futures.get(combination).get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Store times and speedups over the run without optimizations
+        for (int combination = 0; combination < COMBINATIONS; combination++) {
+            BENCHMARK.addValue(TIME[combination], times[combination]);
+            BENCHMARK.addValue(SPEEDUP[combination], times[0] / times[combination]);
+        }
+    }
+
+    /**
+     * Returns a label for the given combination of optimizations
+     * @param combination
+     * @return
+     */
+    private static String getLabel(int combination) {
+        StringBuilder builder = new StringBuilder();
+        for (int optimization = 0; optimization < OPTIMIZATIONS.length; optimization++) {
+            if (isEnabled(combination, optimization)) {
+                builder.append(builder.length() == 0 ? "" : "+").append(OPTIMIZATIONS[optimization]);
+            }
+        }
+        return builder.length() == 0 ? "None" : builder.toString();
+    }
+
+    /**
+     * Returns whether the given optimization is enabled in the given combination
+     * @param combination
+     * @param optimization
+     * @return
+     */
+    private static boolean isEnabled(int combination, int optimization) {
+        return (combination & (1 << optimization)) != 0;
+    }
+}
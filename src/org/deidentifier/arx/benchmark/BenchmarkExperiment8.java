@@ -0,0 +1,109 @@
+/*
+ * Benchmark of ARX's implementation of the game theoretic approach proposed in:
+ * A Game Theoretic Framework for Analyzing Re-Identification Risk.
+ * Zhiyu Wan, Yevgeniy Vorobeychik, Weiyi Xia, Ellen Wright Clayton,
+ * Murat Kantarcioglu, Ranjit Ganta, Raymond Heatherly, Bradley A. Malin
+ * PLOS|ONE. 2015.
+ * 
+ * Copyright 2017 - Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.benchmark.BenchmarkSetup.BenchmarkDataset;
+
+import de.linearbits.subframe.Benchmark;
+import de.linearbits.subframe.analyzer.ValueBuffer;
+
+/**
+ * Compares execution times and allocations of the binary phase of FLASH with
+ * java.util.PriorityQueue and with the primitive priority queue.
+ *
+ * @author Fabian Prasser
+ */
+public abstract class BenchmarkExperiment8 extends BenchmarkExperiment {
+
+    /** The benchmark instance */
+    private static final Benchmark BENCHMARK          = new Benchmark(new String[] { "k" });
+    /** MEASUREMENT PARAMETER */
+    private static final int       TIME_LEGACY        = BENCHMARK.addMeasure("Time-legacy");
+    /** MEASUREMENT PARAMETER */
+    private static final int       TIME_PRIMITIVE     = BENCHMARK.addMeasure("Time-primitive");
+    /** MEASUREMENT PARAMETER */
+    private static final int       BYTES_LEGACY       = BENCHMARK.addMeasure("Bytes-legacy");
+    /** MEASUREMENT PARAMETER */
+    private static final int       BYTES_PRIMITIVE    = BENCHMARK.addMeasure("Bytes-primitive");
+
+    /**
+     * Main
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        BenchmarkDataset dataset = BenchmarkDataset.ADULT;
+
+        // Init
+        BENCHMARK.addAnalyzer(TIME_LEGACY, new ValueBuffer());
+        BENCHMARK.addAnalyzer(TIME_PRIMITIVE, new ValueBuffer());
+        BENCHMARK.addAnalyzer(BYTES_LEGACY, new ValueBuffer());
+        BENCHMARK.addAnalyzer(BYTES_PRIMITIVE, new ValueBuffer());
+
+        // Perform
+        for (int k : BenchmarkSetup.getParametersK()) {
+            System.out.println(" - k = " + k);
+            BENCHMARK.addRun(k);
+            analyze(dataset, k);
+            BENCHMARK.getResults().write(new File("results/"+dataset.toString()+"-experiment8.csv"));
+        }
+    }
+
+    /**
+     * Run the benchmark
+     * @param dataset
+     * @param k
+     * @throws IOException
+     */
+    private static void analyze(BenchmarkDataset dataset, int k) throws IOException {
+
+        final int REPETITIONS = BenchmarkSetup.getNumberOfRepetitions(dataset);
+     
+        // Load data
+        Data data = BenchmarkSetup.getData(dataset);
+
+        // Run benchmarks
+        for (boolean primitive : new boolean[] { false, true }) {
+
+            double time = 0d;
+            double bytes = 0d;
+
+            // Warmup run
+            getExecutionTime(data, k, primitive);
+
+            // Repetitions
+            for (int i = 0; i < REPETITIONS; i++) {
+                time += getExecutionTime(data, k, primitive);
+                bytes += getAllocatedBytes(data, k, primitive);
+            }
+            time /= (REPETITIONS * 1000d);
+            bytes /= REPETITIONS;
+            BENCHMARK.addValue(primitive ? TIME_PRIMITIVE : TIME_LEGACY, time);
+            BENCHMARK.addValue(primitive ? BYTES_PRIMITIVE : BYTES_LEGACY, bytes);
+        }
+    }
+}
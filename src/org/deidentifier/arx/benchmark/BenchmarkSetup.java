@@ -21,8 +21,11 @@
  */
 package org.deidentifier.arx.benchmark;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.Data;
@@ -37,6 +40,9 @@ import org.deidentifier.arx.Data;
  * @author Fabian Prasser
  */
 public class BenchmarkSetup {
+
+    /** Directory in which snapshots of datasets are stored */
+    private static final String SNAPSHOT_DIRECTORY = "snapshots";
     
     public static enum BenchmarkDataset {
         
@@ -113,38 +119,31 @@ public class BenchmarkSetup {
      */
     
     public static Data getData(BenchmarkDataset dataset) throws IOException {
-        Data data = null;
-        switch (dataset) {
-        case ADULT:
-            data = Data.create("data/adult.csv", Charset.defaultCharset(), ';');
-            break;
-        case ADULT_NC:
-            data = Data.create("data/adult_nc.csv", Charset.defaultCharset(), ';');
-            break;
-        case ADULT_TN:
-            data = Data.create("data/adult_tn.csv", Charset.defaultCharset(), ';');
-            break;
-        case ADULT_TN_SAFE_HARBOR:
-            data = Data.create("data/adult_tn.csv", Charset.defaultCharset(), ';');
-            break;
-        case ATUS:
-            data = Data.create("data/atus.csv", Charset.defaultCharset(), ';');
-            break;
-        case CUP:
-            data = Data.create("data/cup.csv", Charset.defaultCharset(), ';');
-            break;
-        case FARS:
-            data = Data.create("data/fars.csv", Charset.defaultCharset(), ';');
-            break;
-        case IHIS:
-            data = Data.create("data/ihis.csv", Charset.defaultCharset(), ';');
-            break;
-        default:
-            throw new RuntimeException("Invalid dataset");
+
+        // Source files
+        String[] qis = getQuasiIdentifyingAttributes(dataset);
+        String[] files = new String[qis.length + 1];
+        files[0] = getDataFile(dataset);
+        for (int i = 0; i < qis.length; i++) {
+            files[i + 1] = getHierarchyFile(dataset, qis[i]);
         }
+
+        // Load snapshot or parse source files
+        long fingerprint = BenchmarkSnapshot.getFingerprint(files);
+        File file = new File(SNAPSHOT_DIRECTORY, dataset.toString() + ".snapshot");
+        BenchmarkSnapshot snapshot = BenchmarkSnapshot.load(file, fingerprint);
+        if (snapshot == null) {
+            Map<String, Hierarchy> hierarchies = new HashMap<>();
+            for (String qi : qis) {
+                hierarchies.put(qi, getHierarchy(dataset, qi));
+            }
+            snapshot = BenchmarkSnapshot.create(Data.create(files[0], Charset.defaultCharset(), ';'), hierarchies);
+            snapshot.store(file, fingerprint);
+        }
+        Data data = snapshot.getData();
         
-        for (String qi : getQuasiIdentifyingAttributes(dataset)) {
-            data.getDefinition().setAttributeType(qi, getHierarchy(dataset, qi));
+        for (String qi : qis) {
+            data.getDefinition().setAttributeType(qi, snapshot.getHierarchy(qi));
         }
         
         if (dataset == BenchmarkDataset.ADULT_TN_SAFE_HARBOR) {
@@ -190,6 +189,14 @@ public class BenchmarkSetup {
         return 4;
     }
     
+    /**
+     * Returns the number of threads used for parallel runs
+     * @return
+     */
+    public static int getNumberOfThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
     public static int getNumberOfRepetitions(BenchmarkDataset dataset) {
         if (dataset == BenchmarkDataset.ADULT_NC ||
             dataset == BenchmarkDataset.ADULT_TN) {
@@ -238,6 +245,14 @@ public class BenchmarkSetup {
     public static double[] getParametersGainLoss() {
         return new double[]{0, 250, 500, 750, 1000, 1250, 1500, 1750, 2000};
     }
+
+    /**
+     * Parameters to benchmark
+     * @return
+     */
+    public static int[] getParametersK() {
+        return new int[]{2, 3, 5, 10, 20, 50, 100};
+    }
     
     /**
      * Returns the generalization hierarchy for the dataset and attribute
@@ -247,26 +262,7 @@ public class BenchmarkSetup {
      * @throws IOException
      */
     public static Hierarchy getHierarchy(BenchmarkDataset dataset, String attribute) throws IOException {
-        switch (dataset) {
-        case ADULT:
-            return Hierarchy.create("hierarchies/adult_hierarchy_" + attribute + ".csv", Charset.defaultCharset(), ';');
-        case ADULT_NC:
-            return Hierarchy.create("hierarchies/adult_nc_hierarchy_" + attribute + ".csv", Charset.defaultCharset(), ';');
-        case ADULT_TN:
-            return Hierarchy.create("hierarchies/adult_tn_hierarchy_" + attribute + ".csv", Charset.defaultCharset(), ';');
-        case ADULT_TN_SAFE_HARBOR:
-            return Hierarchy.create("hierarchies/adult_tn_safe_harbor_hierarchy_" + attribute + ".csv", Charset.defaultCharset(), ';');
-        case ATUS:
-            return Hierarchy.create("hierarchies/atus_hierarchy_" + attribute + ".csv", Charset.defaultCharset(), ';');
-        case CUP:
-            return Hierarchy.create("hierarchies/cup_hierarchy_" + attribute + ".csv", Charset.defaultCharset(), ';');
-        case FARS:
-            return Hierarchy.create("hierarchies/fars_hierarchy_" + attribute + ".csv", Charset.defaultCharset(), ';');
-        case IHIS:
-            return Hierarchy.create("hierarchies/ihis_hierarchy_" + attribute + ".csv", Charset.defaultCharset(), ';');
-        default:
-            throw new RuntimeException("Invalid dataset");
-        }
+        return Hierarchy.create(getHierarchyFile(dataset, attribute), Charset.defaultCharset(), ';');
     }
     
     /**
@@ -344,4 +340,61 @@ public class BenchmarkSetup {
             throw new RuntimeException("Invalid dataset");
         }
     }
+
+    /**
+     * Returns the data file of the given dataset
+     * @param dataset
+     * @return
+     */
+    private static String getDataFile(BenchmarkDataset dataset) {
+        switch (dataset) {
+        case ADULT:
+            return "data/adult.csv";
+        case ADULT_NC:
+            return "data/adult_nc.csv";
+        case ADULT_TN:
+            return "data/adult_tn.csv";
+        case ADULT_TN_SAFE_HARBOR:
+            return "data/adult_tn.csv";
+        case ATUS:
+            return "data/atus.csv";
+        case CUP:
+            return "data/cup.csv";
+        case FARS:
+            return "data/fars.csv";
+        case IHIS:
+            return "data/ihis.csv";
+        default:
+            throw new RuntimeException("Invalid dataset");
+        }
+    }
+
+    /**
+     * Returns the file containing the generalization hierarchy for the dataset and attribute
+     * @param dataset
+     * @param attribute
+     * @return
+     */
+    private static String getHierarchyFile(BenchmarkDataset dataset, String attribute) {
+        switch (dataset) {
+        case ADULT:
+            return "hierarchies/adult_hierarchy_" + attribute + ".csv";
+        case ADULT_NC:
+            return "hierarchies/adult_nc_hierarchy_" + attribute + ".csv";
+        case ADULT_TN:
+            return "hierarchies/adult_tn_hierarchy_" + attribute + ".csv";
+        case ADULT_TN_SAFE_HARBOR:
+            return "hierarchies/adult_tn_safe_harbor_hierarchy_" + attribute + ".csv";
+        case ATUS:
+            return "hierarchies/atus_hierarchy_" + attribute + ".csv";
+        case CUP:
+            return "hierarchies/cup_hierarchy_" + attribute + ".csv";
+        case FARS:
+            return "hierarchies/fars_hierarchy_" + attribute + ".csv";
+        case IHIS:
+            return "hierarchies/ihis_hierarchy_" + attribute + ".csv";
+        default:
+            throw new RuntimeException("Invalid dataset");
+        }
+    }
 }
@@ -0,0 +1,394 @@
+/*
+ * Benchmark of ARX's implementation of the game theoretic approach proposed in:
+ * A Game Theoretic Framework for Analyzing Re-Identification Risk.
+ * Zhiyu Wan, Yevgeniy Vorobeychik, Weiyi Xia, Ellen Wright Clayton,
+ * Murat Kantarcioglu, Ranjit Ganta, Raymond Heatherly, Bradley A. Malin
+ * PLOS|ONE. 2015.
+ * 
+ * Copyright 2017 - Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.Data;
+
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Binary snapshot of a dataset and its generalization hierarchies. The dataset is stored
+ * dictionary-encoded, one column after the other. Snapshots are identified by a fingerprint
+ * of the source files. Loading a snapshot only avoids parsing CSV files: its content is read
+ * onto the heap, and the rows are rebuilt and passed to Data.create(), which encodes them again,
+ * as ARX does not accept dictionary-encoded input. All lengths are validated against the size of
+ * the file before memory is allocated, so corrupt snapshots are treated as stale.
+ * 
+ * @author Fabian Prasser
+ */
+class BenchmarkSnapshot {
+
+    /** Magic number */
+    private static final int             MAGIC   = 0x41525853;
+
+    /** Version of the format */
+    private static final int             VERSION = 1;
+
+    /** The header */
+    private final String[]               header;
+
+    /** The dictionary of each column */
+    private final String[][]             dictionaries;
+
+    /** The codes of each column */
+    private final int[][]                columns;
+
+    /** The hierarchies */
+    private final Map<String, String[][]> hierarchies;
+
+    /**
+     * Creates a new instance
+     * @param header
+     * @param dictionaries
+     * @param columns
+     * @param hierarchies
+     */
+    private BenchmarkSnapshot(String[] header,
+                              String[][] dictionaries,
+                              int[][] columns,
+                              Map<String, String[][]> hierarchies) {
+        this.header = header;
+        this.dictionaries = dictionaries;
+        this.columns = columns;
+        this.hierarchies = hierarchies;
+    }
+
+    /**
+     * Creates a snapshot of the given data and hierarchies
+     * @param data
+     * @param hierarchies
+     * @return
+     */
+    static BenchmarkSnapshot create(Data data, Map<String, Hierarchy> hierarchies) {
+
+        // Collect rows
+        List<String[]> rows = new ArrayList<>();
+        Iterator<String[]> iter = data.getHandle().iterator();
+        String[] header = iter.next();
+        while (iter.hasNext()) {
+            rows.add(iter.next());
+        }
+
+        // Encode columns
+        String[][] dictionaries = new String[header.length][];
+        int[][] columns = new int[header.length][rows.size()];
+        for (int column = 0; column < header.length; column++) {
+            ObjectIntOpenHashMap<String> codes = new ObjectIntOpenHashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            for (int row = 0; row < rows.size(); row++) {
+                String value = rows.get(row)[column];
+                if (!codes.containsKey(value)) {
+                    codes.put(value, dictionary.size());
+                    dictionary.add(value);
+                }
+                columns[column][row] = codes.get(value);
+            }
+            dictionaries[column] = dictionary.toArray(new String[dictionary.size()]);
+        }
+
+        // Hierarchies
+        Map<String, String[][]> _hierarchies = new HashMap<>();
+        for (Entry<String, Hierarchy> entry : hierarchies.entrySet()) {
+            _hierarchies.put(entry.getKey(), entry.getValue().getHierarchy());
+        }
+
+        // Return
+        return new BenchmarkSnapshot(header, dictionaries, columns, _hierarchies);
+    }
+
+    /**
+     * Returns a fingerprint of the given files, which changes when they are modified
+     * @param files
+     * @return
+     */
+    static long getFingerprint(String... files) {
+        long hash = 0xcbf29ce484222325L;
+        for (String name : files) {
+            File file = new File(name);
+            hash = (hash ^ name.hashCode()) * 0x100000001b3L;
+            hash = (hash ^ file.length()) * 0x100000001b3L;
+            hash = (hash ^ file.lastModified()) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Loads a snapshot. Returns null if the file does not exist, does not match the fingerprint,
+     * is truncated or is corrupt.
+     * @param file
+     * @param fingerprint
+     * @return
+     * @throws IOException
+     */
+    static BenchmarkSnapshot load(File file, long fingerprint) throws IOException {
+
+        // Check
+        if (!file.exists()) {
+            return null;
+        }
+
+        // Read
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+        // Check
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION ||
+            buffer.getLong() != fingerprint) {
+            return null;
+        }
+
+        // Read
+        try {
+            return read(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            // Truncated, e.g. by an interrupted write, or corrupt, hence stale
+            return null;
+        }
+    }
+
+    /**
+     * Reads the content of a snapshot, following the fingerprint
+     * @param buffer
+     * @return
+     */
+    private static BenchmarkSnapshot read(ByteBuffer buffer) {
+
+        // Data
+        String[] header = readStrings(buffer);
+        String[][] dictionaries = new String[header.length][];
+        int[][] columns = new int[header.length][];
+        int rows = buffer.getInt();
+        for (int column = 0; column < header.length; column++) {
+            dictionaries[column] = readStrings(buffer);
+            checkLength(buffer, rows, 4);
+            columns[column] = new int[rows];
+            buffer.asIntBuffer().get(columns[column]);
+            buffer.position(buffer.position() + rows * 4);
+        }
+
+        // Hierarchies
+        Map<String, String[][]> hierarchies = new HashMap<>();
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            String attribute = readString(buffer);
+            int length = buffer.getInt();
+            checkLength(buffer, length, 4);
+            String[][] hierarchy = new String[length][];
+            for (int row = 0; row < hierarchy.length; row++) {
+                hierarchy[row] = readStrings(buffer);
+            }
+            hierarchies.put(attribute, hierarchy);
+        }
+
+        // Return
+        return new BenchmarkSnapshot(header, dictionaries, columns, hierarchies);
+    }
+
+    /**
+     * Returns the data
+     * @return
+     */
+    Data getData() {
+        final int rows = columns.length == 0 ? 0 : columns[0].length;
+        return Data.create(new Iterator<String[]>() {
+
+            /** The next row, -1 is the header */
+            private int row = -1;
+
+            @Override
+            public boolean hasNext() {
+                return row < rows;
+            }
+
+            @Override
+            public String[] next() {
+                if (row == -1) {
+                    row++;
+                    return header;
+                }
+                String[] tuple = new String[header.length];
+                for (int column = 0; column < header.length; column++) {
+                    tuple[column] = dictionaries[column][columns[column][row]];
+                }
+                row++;
+                return tuple;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+
+    /**
+     * Returns the hierarchy for the given attribute
+     * @param attribute
+     * @return
+     */
+    Hierarchy getHierarchy(String attribute) {
+        return Hierarchy.create(hierarchies.get(attribute));
+    }
+
+    /**
+     * Stores the snapshot. The file is written under a temporary name and renamed afterwards,
+     * so that concurrent or interrupted runs never leave a partial snapshot behind.
+     * @param file
+     * @param fingerprint
+     * @throws IOException
+     */
+    void store(File file, long fingerprint) throws IOException {
+
+        // Prepare
+        File directory = file.getAbsoluteFile().getParentFile();
+        directory.mkdirs();
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+
+        // Write and rename
+        try {
+            write(temp, fingerprint);
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Writes the snapshot to the given file
+     * @param file
+     * @param fingerprint
+     * @throws IOException
+     */
+    private void write(File file, long fingerprint) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            writeStrings(out, header);
+            int rows = columns.length == 0 ? 0 : columns[0].length;
+            out.writeInt(rows);
+            for (int column = 0; column < header.length; column++) {
+                writeStrings(out, dictionaries[column]);
+                for (int row = 0; row < rows; row++) {
+                    out.writeInt(columns[column][row]);
+                }
+            }
+            out.writeInt(hierarchies.size());
+            for (Entry<String, String[][]> entry : hierarchies.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().length);
+                for (String[] row : entry.getValue()) {
+                    writeStrings(out, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given number of elements, each of which occupies at least the given number
+     * of bytes, fits into the remaining content. This prevents allocating memory for corrupt lengths.
+     * @param buffer
+     * @param length
+     * @param bytes
+     * @throws IllegalArgumentException if it does not fit
+     */
+    private static void checkLength(ByteBuffer buffer, int length, int bytes) {
+        if (length < 0 || (long) length * bytes > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+    }
+
+    /**
+     * Reads a string
+     * @param buffer
+     * @return
+     */
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        checkLength(buffer, length, 1);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads an array of strings
+     * @param buffer
+     * @return
+     */
+    private static String[] readStrings(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        checkLength(buffer, length, 4);
+        String[] result = new String[length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = readString(buffer);
+        }
+        return result;
+    }
+
+    /**
+     * Writes a string
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes an array of strings
+     * @param out
+     * @param values
+     * @throws IOException
+     */
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+}
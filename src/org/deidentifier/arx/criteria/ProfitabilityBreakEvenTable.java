@@ -0,0 +1,135 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.criteria;
+
+import org.deidentifier.arx.risk.RiskModelCostBenefit;
+
+/**
+ * Break-even table for profitability models. For each class size, which determines the adversary's
+ * success probability, the table stores an interval of information loss which contains the point at
+ * which the publisher's payout drops to the threshold. Only values within the interval, which is
+ * narrow, are evaluated with the risk model.<br>
+ * <br>
+ * The table relies on two properties of the risk model: information loss lies in [0,1], and for a
+ * given success probability the publisher's payout is monotonically non-increasing in information
+ * loss. Hence, values below the interval are profitable and values above are not. The table must not
+ * be used with risk models which violate these properties.
+ *
+ * @author Fabian Prasser
+ */
+public class ProfitabilityBreakEvenTable {
+
+    /** Number of class sizes covered by the table */
+    private static final int           SIZE       = 1024;
+
+    /** Number of bisection steps */
+    private static final int           ITERATIONS = 40;
+
+    /** The risk model */
+    private final RiskModelCostBenefit model;
+
+    /** The threshold */
+    private final double               threshold;
+
+    /** For each class size, information loss up to which the payout is larger than the threshold */
+    private final double[]             lower;
+
+    /** For each class size, information loss from which the payout is not larger than the threshold */
+    private final double[]             upper;
+
+    /**
+     * Creates a new instance
+     *
+     * @param model
+     * @param threshold
+     */
+    public ProfitabilityBreakEvenTable(RiskModelCostBenefit model, double threshold) {
+        this.model = model;
+        this.threshold = threshold;
+        this.lower = new double[SIZE];
+        this.upper = new double[SIZE];
+        for (int size = 1; size < SIZE; size++) {
+            double successProbability = 1d / size;
+
+            // Never profitable
+            if (!evaluate(0d, successProbability)) {
+                lower[size] = -1d;
+                upper[size] = 0d;
+
+            // Always profitable
+            } else if (evaluate(1d, successProbability)) {
+                lower[size] = 1d;
+                upper[size] = 2d;
+
+            // Find break-even point
+            } else {
+                double low = 0d;
+                double high = 1d;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    double mid = (low + high) / 2d;
+                    if (evaluate(mid, successProbability)) {
+                        low = mid;
+                    } else {
+                        high = mid;
+                    }
+                }
+                lower[size] = low;
+                upper[size] = high;
+            }
+        }
+    }
+
+    /**
+     * Returns the threshold
+     *
+     * @return
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns whether the payout for a class of the given size with the given information loss is
+     * larger than the threshold
+     *
+     * @param informationLoss In [0,1]
+     * @param size
+     * @return
+     */
+    public boolean isProfitable(double informationLoss, int size) {
+        if (size > 0 && size < SIZE) {
+            if (informationLoss <= lower[size]) {
+                return true;
+            } else if (informationLoss >= upper[size]) {
+                return false;
+            }
+        }
+        return evaluate(informationLoss, 1d / size);
+    }
+
+    /**
+     * Evaluates the risk model
+     *
+     * @param informationLoss
+     * @param successProbability
+     * @return
+     */
+    private boolean evaluate(double informationLoss, double successProbability) {
+        return model.getExpectedPublisherPayout(informationLoss, successProbability) > threshold;
+    }
+}
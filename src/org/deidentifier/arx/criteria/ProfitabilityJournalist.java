@@ -21,8 +21,6 @@ import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataSubset;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
-import org.deidentifier.arx.framework.lattice.Transformation;
-import org.deidentifier.arx.metric.v2.MetricSDNMEntropyBasedInformationLoss;
 
 /**
  * Privacy model for the game theoretic approach proposed in:
@@ -94,28 +92,6 @@ public class ProfitabilityJournalist extends ProfitabilityProsecutor {
         this.optimize = optimize;
     }
 
-    @Override
-    public boolean isAnonymous(Transformation transformation, HashGroupifyEntry entry) {
-        
-        // This is a class containing only records from the population
-        if (entry.count == 0) {
-            return false;
-        }
-        
-        // Calculate information loss and success probability
-        double informationLoss = MetricSDNMEntropyBasedInformationLoss.getEntropyBasedInformationLoss(transformation,
-                                                                                                      entry,
-                                                                                                      shares,
-                                                                                                      this.microaggregationFunctions,
-                                                                                                      this.microaggregationStartIndex,
-                                                                                                      maxIL);
-        double successProbability = getSuccessProbability(entry);
-        double publisherPayoff = riskModel.getExpectedPublisherPayout(informationLoss, successProbability);
-                
-        // We keep the set of records if the payoff is sufficient
-        return !optimize ? (publisherPayoff > 0) : (publisherPayoff > ((1d - gsFactor) * config.getPublisherBenefit()));
-    }
-
     @Override
     public boolean isSubsetAvailable() {
         return true;
@@ -127,7 +103,12 @@ public class ProfitabilityJournalist extends ProfitabilityProsecutor {
     }
 
     @Override
-    protected double getSuccessProbability(HashGroupifyEntry entry) {
-        return entry.pcount == 0 ? 1d / entry.count : 1d / entry.pcount;
+    protected int getClassSize(HashGroupifyEntry entry) {
+        return entry.pcount == 0 ? entry.count : entry.pcount;
+    }
+
+    @Override
+    protected double getPayoutThreshold() {
+        return !optimize ? 0d : (1d - gsFactor) * config.getPublisherBenefit();
     }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.v2.DomainShare;
+import org.deidentifier.arx.metric.v2.DomainShareLogarithms;
 import org.deidentifier.arx.metric.v2.MetricSDNMEntropyBasedInformationLoss;
 import org.deidentifier.arx.risk.RiskModelCostBenefit;
 
@@ -48,6 +49,9 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
     /** Domain shares for each dimension. */
     protected DomainShare[]                   shares;
 
+    /** Logarithms of the domain shares */
+    protected DomainShareLogarithms           logarithms;
+
     /** The microaggregation functions. */
     protected DistributionAggregateFunction[] microaggregationFunctions;
 
@@ -63,6 +67,12 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
     /** Risk model */
     protected RiskModelCostBenefit            riskModel;
 
+    /** Whether information loss is evaluated with simplified expressions */
+    protected boolean                         optimized        = true;
+
+    /** Break-even table, created on demand */
+    private transient volatile ProfitabilityBreakEvenTable breakEvenTable;
+
     /**
      * Creates a new instance of game theoretic approach proposed in:
      * A Game Theoretic Framework for Analyzing Re-Identification Risk.
@@ -104,8 +114,11 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
 
         // Compute domain shares
         this.shares =  manager.getDomainShares();
+        this.logarithms = manager.getDomainShareLogarithms();
         this.config = config.getCostBenefitConfiguration();
         this.riskModel = new RiskModelCostBenefit(this.config);
+        this.optimized = config.isExpressionSimplificationEnabled();
+        this.breakEvenTable = null;
 
         // Prepare consideration of microaggregation
         this.microaggregationFunctions = manager.getMicroaggregationFunctions();
@@ -128,14 +141,14 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
         double informationLoss = MetricSDNMEntropyBasedInformationLoss.getEntropyBasedInformationLoss(transformation,
                                                                                                       entry,
                                                                                                       shares,
+                                                                                                      logarithms,
                                                                                                       this.microaggregationFunctions,
                                                                                                       this.microaggregationStartIndex,
-                                                                                                      maxIL);
-        double successProbability = getSuccessProbability(entry);
-        double publisherPayoff = riskModel.getExpectedPublisherPayout(informationLoss, successProbability);
-                
-        // We keep the set of records if the payoff is > 0
-        return publisherPayoff > 0;
+                                                                                                      maxIL,
+                                                                                                      optimized);
+        
+        // We keep the set of records if the payoff is sufficient
+        return isProfitable(informationLoss, entry);
     }
 
     @Override
@@ -153,6 +166,15 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
         return toString("prosecutor");
     }
 
+    /**
+     * Returns the size of the class which determines the adversary's success probability
+     * @param entry
+     * @return
+     */
+    protected int getClassSize(HashGroupifyEntry entry) {
+        return entry.count;
+    }
+
     /**
      * Returns the current configuration
      * @return
@@ -168,7 +190,49 @@ public class ProfitabilityProsecutor extends ImplicitPrivacyCriterion {
      * @return
      */
     protected double getSuccessProbability(HashGroupifyEntry entry) {
-        return 1d / entry.count;
+        return 1d / getClassSize(entry);
+    }
+
+    /**
+     * Returns the threshold which the publisher's payout must exceed for records to be kept
+     * @return
+     */
+    protected double getPayoutThreshold() {
+        return 0d;
+    }
+
+    /**
+     * Returns whether the publisher's payout for the given class exceeds the threshold. With
+     * simplified expressions, a break-even table avoids evaluating the risk model for most classes.
+     * @param informationLoss
+     * @param entry
+     * @return
+     */
+    protected boolean isProfitable(double informationLoss, HashGroupifyEntry entry) {
+
+        // Evaluate the risk model
+        double threshold = getPayoutThreshold();
+        if (!optimized) {
+            return riskModel.getExpectedPublisherPayout(informationLoss, getSuccessProbability(entry)) > threshold;
+        }
+
+        // Use the table
+        return getBreakEvenTable(threshold).isProfitable(informationLoss, getClassSize(entry));
+    }
+
+    /**
+     * Returns the break-even table for the given threshold. Tables are immutable, so concurrent callers
+     * may at worst build the same table twice.
+     * @param threshold
+     * @return
+     */
+    private ProfitabilityBreakEvenTable getBreakEvenTable(double threshold) {
+        ProfitabilityBreakEvenTable table = this.breakEvenTable;
+        if (table == null || table.getThreshold() != threshold) {
+            table = new ProfitabilityBreakEvenTable(riskModel, threshold);
+            this.breakEvenTable = table;
+        }
+        return table;
     }
 
     /**
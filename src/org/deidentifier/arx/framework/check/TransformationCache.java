@@ -0,0 +1,203 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A memory-bounded cache of aggregates over the equivalence classes induced by transformations,
+ * such as the sum of the information loss of all classes.
+ * Entries are keyed by a dataset and a generalization vector, which means that the cache can be
+ * shared between multiple anonymizations of the same data, e.g. with different privacy models.
+ * Datasets are registered with a fingerprint and an identity, which comprises everything the
+ * aggregates depend on, e.g. the data, the hierarchies and the parameters of the quality model.
+ * Identities are compared element by element if fingerprints match, which means that collisions
+ * of fingerprints never cause wrong results. The least recently used entries are evicted first.
+ * The cache references the identities of the most recently registered datasets. It may be
+ * accessed concurrently.
+ *
+ * @author Fabian Prasser
+ */
+public class TransformationCache {
+
+    /**
+     * A registered dataset
+     *
+     * @author Fabian Prasser
+     */
+    private static class Dataset {
+
+        /** Identifier */
+        private final int      identifier;
+
+        /** Fingerprint */
+        private final long     fingerprint;
+
+        /** Identity */
+        private final Object[] identity;
+
+        /**
+         * Creates a new instance
+         * @param identifier
+         * @param fingerprint
+         * @param identity
+         */
+        private Dataset(int identifier, long fingerprint, Object[] identity) {
+            this.identifier = identifier;
+            this.fingerprint = fingerprint;
+            this.identity = identity;
+        }
+    }
+
+    /**
+     * Key of an entry
+     *
+     * @author Fabian Prasser
+     */
+    private static class Key {
+
+        /** Identifier of the dataset */
+        private final int   dataset;
+
+        /** The generalization */
+        private final int[] generalization;
+
+        /** Hash code */
+        private final int   hashcode;
+
+        /**
+         * Creates a new instance
+         * @param dataset
+         * @param generalization
+         */
+        private Key(int dataset, int[] generalization) {
+            this.dataset = dataset;
+            this.generalization = generalization;
+            this.hashcode = 31 * Arrays.hashCode(generalization) + dataset;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Key other = (Key) obj;
+            return dataset == other.dataset && Arrays.equals(generalization, other.generalization);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /** The maximal number of registered datasets */
+    private static final int               MAX_DATASETS = 8;
+
+    /** The entries */
+    private final LinkedHashMap<Key, Double> entries;
+
+    /** The registered datasets, least recently used first */
+    private final List<Dataset>            datasets     = new ArrayList<Dataset>();
+
+    /** The next identifier of a dataset */
+    private int                            next         = 0;
+
+    /**
+     * Creates a new instance
+     * @param capacity The maximal number of entries
+     */
+    public TransformationCache(final int capacity) {
+        if (capacity <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.entries = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+            private static final long serialVersionUID = 4512707347236587498L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Removes all entries and datasets
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.datasets.clear();
+    }
+
+    /**
+     * Returns the entry for the given dataset and generalization, null if there is none
+     * @param dataset
+     * @param generalization
+     * @return
+     */
+    public synchronized Double get(int dataset, int[] generalization) {
+        return this.entries.get(new Key(dataset, generalization));
+    }
+
+    /**
+     * Returns the identifier of the dataset with the given fingerprint and identity. Registers
+     * the dataset, if there is none. If more datasets are registered than supported, the least
+     * recently used dataset is removed. Its entries are never returned again and eventually evicted.
+     * The elements of the identity must not be modified afterwards.
+     * @param fingerprint
+     * @param identity
+     * @return
+     */
+    public synchronized int getDataset(long fingerprint, Object... identity) {
+
+        // Search
+        for (int i = 0; i < datasets.size(); i++) {
+            Dataset dataset = datasets.get(i);
+            if (dataset.fingerprint == fingerprint && Arrays.deepEquals(dataset.identity, identity)) {
+                datasets.add(datasets.remove(i));
+                return dataset.identifier;
+            }
+        }
+
+        // Register
+        Dataset dataset = new Dataset(next++, fingerprint, identity);
+        datasets.add(dataset);
+        if (datasets.size() > MAX_DATASETS) {
+            datasets.remove(0);
+        }
+        return dataset.identifier;
+    }
+
+    /**
+     * Stores an entry for the given dataset and generalization
+     * @param dataset
+     * @param generalization
+     * @param value
+     */
+    public synchronized void put(int dataset, int[] generalization, double value) {
+        this.entries.put(new Key(dataset, generalization.clone()), value);
+    }
+    /**
+     * Returns the number of entries
+     * @return
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+}
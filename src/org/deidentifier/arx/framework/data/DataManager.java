@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.DataGeneralizationScheme;
@@ -38,12 +40,14 @@ import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFu
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction.DistributionAggregateFunctionGeneralization;
 import org.deidentifier.arx.metric.v2.DomainShare;
 import org.deidentifier.arx.metric.v2.DomainShareInterval;
+import org.deidentifier.arx.metric.v2.DomainShareLogarithms;
 import org.deidentifier.arx.metric.v2.DomainShareMaterialized;
 import org.deidentifier.arx.metric.v2.DomainShareRedaction;
 
 import cern.colt.Sorting;
 import cern.colt.function.IntComparator;
 
+import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntObjectOpenHashMap;
 import com.carrotsearch.hppc.IntOpenHashSet;
 
@@ -72,6 +76,96 @@ public class DataManager {
         public static final int SENSITIVE                         = 1;
     }
 
+    /**
+     * Encodes a range of rows, splitting it into chunks
+     * 
+     * @author Fabian Prasser
+     */
+    private static class EncodingTask extends RecursiveAction {
+
+        /** SVUID */
+        private static final long serialVersionUID = 4926213287145925218L;
+
+        /** The input */
+        private final int[][]     data;
+
+        /** The map */
+        private final int[]       map;
+
+        /** The output */
+        private final int[][]     valsGH;
+
+        /** The output */
+        private final int[][]     valsDI;
+
+        /** The output */
+        private final int[][]     valsIS;
+
+        /** Number of attributes in the output */
+        private final int         lengthGH;
+
+        /** Number of attributes in the output */
+        private final int         lengthDI;
+
+        /** Number of attributes in the output */
+        private final int         lengthIS;
+
+        /** Start index, inclusive */
+        private final int         from;
+
+        /** End index, exclusive */
+        private final int         to;
+
+        /**
+         * Creates a new instance
+         * @param data
+         * @param map
+         * @param valsGH
+         * @param valsDI
+         * @param valsIS
+         * @param lengthGH
+         * @param lengthDI
+         * @param lengthIS
+         * @param from
+         * @param to
+         */
+        private EncodingTask(int[][] data, int[] map,
+                             int[][] valsGH, int[][] valsDI, int[][] valsIS,
+                             int lengthGH, int lengthDI, int lengthIS,
+                             int from, int to) {
+            this.data = data;
+            this.map = map;
+            this.valsGH = valsGH;
+            this.valsDI = valsDI;
+            this.valsIS = valsIS;
+            this.lengthGH = lengthGH;
+            this.lengthDI = lengthDI;
+            this.lengthIS = lengthIS;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ENCODING_CHUNK_SIZE) {
+                encode(data, map, valsGH, valsDI, valsIS, lengthGH, lengthDI, lengthIS, from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EncodingTask(data, map, valsGH, valsDI, valsIS, lengthGH, lengthDI, lengthIS, from, mid),
+                          new EncodingTask(data, map, valsGH, valsDI, valsIS, lengthGH, lengthDI, lengthIS, mid, to));
+            }
+        }
+    }
+
+    /** Number of rows encoded by a single task */
+    private static final int                           ENCODING_CHUNK_SIZE          = 16384;
+
+    /** Number of rows above which data is encoded in parallel */
+    private static final int                           ENCODING_PARALLEL_THRESHOLD  = 100000;
+
+    /** Pool shared by all parallel operations, created on demand */
+    private static ForkJoinPool                        POOL;
+
     /** The data. */
     private final Data                                 dataAnalyzed;
 
@@ -81,12 +175,18 @@ public class DataManager {
     /** The data which is insensitive */
     private final Data                                 dataStatic;
 
+    /** Structures shared with other data managers for the same data, null if there are none */
+    private DataManagerCache.Entry                     shared;
+
     /** The data definition */
     private final DataDefinition                       definition;
 
     /** The domain shares */
     private DomainShare[]                              shares;
 
+    /** The logarithms of the domain shares */
+    private DomainShareLogarithms                      shareLogarithms;
+
     /** The original input header. */
     private final String[]                             header;
 
@@ -134,6 +234,21 @@ public class DataManager {
 
     /** The size of the research subset. */
     private int                                        subsetSize = 0;
+
+    /** The indices of the rows in the research subset, if any. */
+    private int[]                                      subsetRows = null;
+
+    /** Distributions of sensitive attributes, built on demand */
+    private final Map<String, double[]>                distributions = new HashMap<String, double[]>();
+
+    /** Orders of sensitive attributes, built on demand */
+    private final Map<String, int[]>                   orders        = new HashMap<String, int[]>();
+
+    /** Trees of sensitive attributes, built on demand */
+    private final Map<String, int[]>                   trees         = new HashMap<String, int[]>();
+
+    /** Fingerprint of the generalized data, the hierarchies and the research subset, 0 if not yet computed */
+    private long                                       fingerprint = 0L;
     
     /**
      * Creates a new data manager from pre-encoded data.
@@ -394,7 +509,8 @@ public class DataManager {
                 DataSubset _subset = c.getDataSubset();
                 if (_subset != null) {
                     subset = _subset.getSet();
-                    subsetSize = _subset.getArray().length;
+                    subsetRows = _subset.getArray();
+                    subsetSize = subsetRows.length;
                     break;
                 }
             }
@@ -463,6 +579,7 @@ public class DataManager {
         // The projected instance delegates these methods to the original data manager
         this.subset = null;
         this.subsetSize = 0;
+        this.subsetRows = null;
     }
 
     /**
@@ -510,12 +627,7 @@ public class DataManager {
         }
 
         // compute distribution
-        final double total = subset == null ? data.length : subsetSize;
-        final double[] distribution = new double[cardinalities.length];
-        for (int i = 0; i < distribution.length; i++) {
-            distribution[i] = (double) cardinalities[i] / total;
-        }
-        return distribution;
+        return getDistribution(cardinalities, subset == null ? data.length : subsetSize);
     }
 
     /**
@@ -525,23 +637,33 @@ public class DataManager {
      * @param attribute
      * @return distribution
      */
-    public double[] getDistribution(String attribute) {
+    public synchronized double[] getDistribution(String attribute) {
 
         // Check
         if (!indexesSensitive.containsKey(attribute)) {
             throw new IllegalArgumentException("Attribute " + attribute + " is not sensitive");
         }
         
-        // Prepare
-        int index = indexesSensitive.get(attribute);
-        int distinctValues = dataAnalyzed.getDictionary().getMapping()[index].length;
-        int[][] data = dataAnalyzed.getArray();
+        // Build on-demand
+        double[] distribution = distributions.get(attribute);
+        if (distribution == null) {
+            int index = indexesSensitive.get(attribute);
+            int distinctValues = dataAnalyzed.getDictionary().getMapping()[index].length;
+            int[][] data = dataAnalyzed.getArray();
+            distribution = getDistribution(getFrequencies(data, index, distinctValues), subset == null ? data.length : subsetSize);
+            distributions.put(attribute, distribution);
+        }
         
-        // Calculate and return
-        return getDistribution(data, index, distinctValues);
+        // Return a copy
+        return distribution.clone();
     }
 
-    public DomainShare[] getDomainShares() {
+    public synchronized DomainShare[] getDomainShares() {
+
+        // Obtain from cache
+        if (this.shares == null && this.shared != null) {
+            this.shares = this.shared.getDomainShares();
+        }
 
         // Build on-demand
         if (this.shares == null) {
@@ -573,12 +695,79 @@ public class DataManager {
                                                             hierarchiesGeneralized[i].getArray());
                 }
             }
+
+            // Store in cache
+            if (this.shared != null) {
+                this.shared.setDomainShares(this.shares);
+            }
         }
         
         // Return
         return this.shares;
     }
 
+    /**
+     * Returns precomputed logarithms of the domain shares
+     * 
+     * @return
+     */
+    public synchronized DomainShareLogarithms getDomainShareLogarithms() {
+
+        // Obtain from cache
+        if (this.shareLogarithms == null && this.shared != null) {
+            this.shareLogarithms = this.shared.getDomainShareLogarithms();
+        }
+
+        // Build on-demand
+        if (this.shareLogarithms == null) {
+            this.shareLogarithms = new DomainShareLogarithms(getDomainShares(), hierarchiesGeneralized);
+            if (this.shared != null) {
+                this.shared.setDomainShareLogarithms(this.shareLogarithms);
+            }
+        }
+
+        // Return
+        return this.shareLogarithms;
+    }
+
+    /**
+     * Returns a fingerprint of the data to which generalization is applied, the generalization hierarchies
+     * and the research subset. Transformations of data managers with equal fingerprints induce the same
+     * equivalence classes.
+     * 
+     * @return
+     */
+    public synchronized long getFingerprint() {
+
+        // Build on-demand
+        if (this.fingerprint == 0L) {
+            long hash = 0xcbf29ce484222325L;
+            int[][] data = dataGeneralized.getArray();
+            hash = (hash ^ data.length) * 0x100000001b3L;
+            for (int[] row : data) {
+                for (int value : row) {
+                    hash = (hash ^ value) * 0x100000001b3L;
+                }
+            }
+            for (GeneralizationHierarchy hierarchy : hierarchiesGeneralized) {
+                for (int[] row : hierarchy.getArray()) {
+                    for (int value : row) {
+                        hash = (hash ^ value) * 0x100000001b3L;
+                    }
+                }
+            }
+            if (subset != null) {
+                for (int row = 0; row < data.length; row++) {
+                    hash = (hash ^ (subset.contains(row) ? 1 : 0)) * 0x100000001b3L;
+                }
+            }
+            this.fingerprint = hash == 0L ? 1L : hash;
+        }
+
+        // Return
+        return this.fingerprint;
+    }
+
     /**
      * The original data header.
      * 
@@ -686,13 +875,18 @@ public class DataManager {
      * @param attribute
      * @return distribution
      */
-    public int[] getOrder(String attribute) {
+    public synchronized int[] getOrder(String attribute) {
 
         // Check
         if (!indexesSensitive.containsKey(attribute)) {
             throw new IllegalArgumentException("Attribute " + attribute + " is not sensitive");
         }
         
+        // Return a copy, if already available
+        if (orders.containsKey(attribute)) {
+            return orders.get(attribute).clone();
+        }
+        
         // Prepare
         final String[] dictionary = dataAnalyzed.getDictionary().getMapping()[indexesSensitive.get(attribute)];
         final DataType<?> type = this.dataTypesSensitive.get(attribute);
@@ -716,8 +910,19 @@ public class DataManager {
             }
         });
         
-        // Return
-        return order;
+        // Store and return a copy
+        orders.put(attribute, order);
+        return order.clone();
+    }
+
+    /**
+     * Returns the indices of the rows in the research subset, null if there is none.
+     * The array must not be modified.
+     * 
+     * @return
+     */
+    public int[] getSubsetRows() {
+        return subsetRows;
     }
 
     /**
@@ -764,29 +969,128 @@ public class DataManager {
                          int index,
                          int[][] hierarchy) {
 
-        final int totalElementsP = subset == null ? data.length : subsetSize;
+        // Count frequencies
+        final int[] frequencies = new int[hierarchy.length];
+        for (int i = 0; i < data.length; i++) {
+            if (subset == null || subset.contains(i)) {
+                frequencies[data[i][index]]++;
+            }
+        }
+        return getTree(frequencies, subset == null ? data.length : subsetSize, index, hierarchy);
+    }
+
+    /**
+     * Returns the tree for the given sensitive attribute, if a generalization hierarchy is associated.
+     * The resulting tree can be used to calculate the earth mover's distance with hierarchical ground-distance.
+     * 
+     * @param attribute
+     * @return tree
+     */
+    public synchronized int[] getTree(String attribute) {
+        if (!hierarchiesSensitive.containsKey(attribute)) {
+            throw new IllegalArgumentException("Attribute " + attribute + " is not sensitive");
+        }
+        
+        // Build on-demand
+        int[] tree = trees.get(attribute);
+        if (tree == null) {
+            final int index = indexesSensitive.get(attribute);
+            final int[][] hierarchy = hierarchiesSensitive.get(attribute).map;
+            final int[][] data = dataAnalyzed.getArray();
+            final int[] frequencies = getFrequencies(data, index, hierarchy.length);
+            tree = getTree(frequencies, subset == null ? data.length : subsetSize, index, hierarchy);
+            trees.put(attribute, tree);
+        }
+        
+        // Return a copy, as callers store intermediate results in the tree
+        return tree.clone();
+    }
+    
+    /**
+     * Shares immutable structures derived from the generalization hierarchies, such as domain shares,
+     * with all other data managers with the same hierarchies that use the given cache. Must be called
+     * before the structures are accessed.
+     * 
+     * @param cache The cache, null to disable sharing
+     */
+    public synchronized void setDataManagerCache(DataManagerCache cache) {
+        if (cache == null) {
+            this.shared = null;
+            return;
+        }
+        String[] header = dataGeneralized.getHeader();
+        int[][][] hierarchies = new int[hierarchiesGeneralized.length][][];
+        Object[] builders = new Object[header.length];
+        for (int i = 0; i < hierarchies.length; i++) {
+            hierarchies[i] = hierarchiesGeneralized[i].getArray();
+        }
+        for (int i = 0; i < header.length; i++) {
+            builders[i] = definition.getHierarchyBuilder(header[i]);
+        }
+        this.shared = cache.getEntry(dataGeneralized.getDictionary().getMapping(), hierarchies, builders);
+    }
+
+    /**
+     * Returns the distribution for the given frequencies
+     * @param cardinalities
+     * @param total
+     * @return
+     */
+    private double[] getDistribution(int[] cardinalities, double total) {
+        final double[] distribution = new double[cardinalities.length];
+        for (int i = 0; i < distribution.length; i++) {
+            distribution[i] = (double) cardinalities[i] / total;
+        }
+        return distribution;
+    }
+
+    /**
+     * Counts the frequencies of the values of the attribute at the given index, considering the research subset, if any
+     * @param data
+     * @param index
+     * @param distinctValues
+     * @return
+     */
+    private int[] getFrequencies(int[][] data, int index, int distinctValues) {
+        final int[] frequencies = new int[distinctValues];
+        if (subsetRows == null) {
+            for (int i = 0; i < data.length; i++) {
+                frequencies[data[i][index]]++;
+            }
+        } else {
+            for (int i : subsetRows) {
+                frequencies[data[i][index]]++;
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * Returns a tree for the given leaf frequencies, using the given hierarchy.
+     * @param frequencies
+     * @param totalElementsP
+     * @param index
+     * @param hierarchy
+     * @return tree
+     */
+    private int[] getTree(int[] frequencies,
+                          int totalElementsP,
+                          int index,
+                          int[][] hierarchy) {
+
         final int height = hierarchy[0].length - 1;
         final int numLeafs = hierarchy.length;
 
         // TODO: Size could be calculated?!
-        final ArrayList<Integer> treeList = new ArrayList<Integer>();
+        final IntArrayList treeList = new IntArrayList();
         treeList.add(totalElementsP);
         treeList.add(numLeafs);
         treeList.add(height);
 
-        // Init all freq to 0
-        for (int i = 0; i < numLeafs; i++) {
-            treeList.add(0);
-        }
-
-        // Count frequencies
+        // Add frequencies
         final int offsetLeafs = 3;
-        for (int i = 0; i < data.length; i++) {
-            if (subset == null || subset.contains(i)) {
-                int previousFreq = treeList.get(data[i][index] + offsetLeafs);
-                previousFreq++;
-                treeList.set(data[i][index] + offsetLeafs, previousFreq);
-            }
+        for (int i = 0; i < numLeafs; i++) {
+            treeList.add(frequencies[i]);
         }
 
         // Init extras
@@ -858,31 +1162,9 @@ public class DataManager {
             }
         }
 
-        final int[] treeArray = new int[treeList.size()];
-        int count = 0;
-        for (final int val : treeList) {
-            treeArray[count++] = val;
-        }
-
-        return treeArray;
+        return treeList.toArray();
     }
 
-    /**
-     * Returns the tree for the given sensitive attribute, if a generalization hierarchy is associated.
-     * The resulting tree can be used to calculate the earth mover's distance with hierarchical ground-distance.
-     * 
-     * @param attribute
-     * @return tree
-     */
-    public int[] getTree(String attribute) {
-        if (!hierarchiesSensitive.containsKey(attribute)) {
-            throw new IllegalArgumentException("Attribute " + attribute + " is not sensitive");
-        }
-        final int[][] data = dataAnalyzed.getArray();
-        final int index = indexesSensitive.get(attribute);
-        return getTree(data, index, hierarchiesSensitive.get(attribute).map);
-    }
-    
     /**
      * Encodes the data.
      * 
@@ -916,13 +1198,59 @@ public class DataManager {
         final int[][] valsDI = headerAnalyzed.length == 0 ? null : new int[data.length][];
         final int[][] valsIS = headerStatic.length == 0 ? null : new int[data.length][];
 
-        int index = 0;
-        for (final int[] tuple : data) {
+        // Rows are encoded independently, so the result does not depend on the ordering
+        if (data.length > ENCODING_PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+            getPool().invoke(new EncodingTask(data, map, valsGH, valsDI, valsIS,
+                                              headerGeneralized.length, headerAnalyzed.length, headerStatic.length,
+                                              0, data.length));
+        } else {
+            encode(data, map, valsGH, valsDI, valsIS,
+                   headerGeneralized.length, headerAnalyzed.length, headerStatic.length,
+                   0, data.length);
+        }
+
+        // Build data object
+        final Data[] result = { new Data(valsGH,
+                                         headerGeneralized,
+                                         mapGeneralized,
+                                         dictionaryGeneralized),
+                new Data(valsDI, headerAnalyzed, mapAnalyzed, dictionaryAnalyzed),
+                new Data(valsIS, headerStatic, mapStatic, dictionaryStatic) };
+        return result;
+    }
+
+    /**
+     * Encodes the rows within the given range
+     * 
+     * @param data
+     * @param map
+     * @param valsGH
+     * @param valsDI
+     * @param valsIS
+     * @param lengthGH
+     * @param lengthDI
+     * @param lengthIS
+     * @param from inclusive
+     * @param to exclusive
+     */
+    private static void encode(final int[][] data,
+                               final int[] map,
+                               final int[][] valsGH,
+                               final int[][] valsDI,
+                               final int[][] valsIS,
+                               final int lengthGH,
+                               final int lengthDI,
+                               final int lengthIS,
+                               final int from,
+                               final int to) {
+
+        for (int index = from; index < to; index++) {
 
             // Process a tuple
-            final int[] tupleGH = headerGeneralized.length == 0 ? null : new int[headerGeneralized.length];
-            final int[] tupleDI = headerAnalyzed.length == 0 ? null : new int[headerAnalyzed.length];
-            final int[] tupleIS = headerStatic.length == 0 ? null : new int[headerStatic.length];
+            final int[] tuple = data[index];
+            final int[] tupleGH = valsGH == null ? null : new int[lengthGH];
+            final int[] tupleDI = valsDI == null ? null : new int[lengthDI];
+            final int[] tupleIS = valsIS == null ? null : new int[lengthIS];
 
             for (int i = 0; i < tuple.length; i++) {
                 final int idx = i * 2;
@@ -949,24 +1277,27 @@ public class DataManager {
             if (valsGH != null) valsGH[index] = tupleGH;
             if (valsIS != null) valsIS[index] = tupleIS;
             if (valsDI != null) valsDI[index] = tupleDI;
-            index++;
         }
+    }
 
-        // Build data object
-        final Data[] result = { new Data(valsGH,
-                                         headerGeneralized,
-                                         mapGeneralized,
-                                         dictionaryGeneralized),
-                new Data(valsDI, headerAnalyzed, mapAnalyzed, dictionaryAnalyzed),
-                new Data(valsIS, headerStatic, mapStatic, dictionaryStatic) };
-        return result;
+    /**
+     * Returns the pool shared by all parallel operations of the framework, such as encoding
+     * and the evaluation of large batches of classes. Its worker threads are daemon threads,
+     * so it does not need to be shut down.
+     * @return
+     */
+    public static synchronized ForkJoinPool getPool() {
+        if (POOL == null) {
+            POOL = new ForkJoinPool();
+        }
+        return POOL;
     }
 
     /**
      * Returns the data definitions
      * @return
      */
-    protected DataDefinition getDataDefinition() {
+    public DataDefinition getDataDefinition() {
         return this.definition;
     }
 }
@@ -0,0 +1,188 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.metric.v2.DomainShare;
+import org.deidentifier.arx.metric.v2.DomainShareLogarithms;
+
+/**
+ * A memory-bounded cache of immutable structures derived from the generalization hierarchies,
+ * such as domain shares. Entries are keyed by the hierarchies, their dictionaries and the hierarchy
+ * builders, which are compared on every hit. This means that the cache can be shared between data
+ * managers created by multiple anonymizations of the same data, one after another or concurrently,
+ * without hashing the records. Per-run state, such as microaggregation functions, is not cached.
+ * The least recently used entries are evicted first.
+ *
+ * @author Fabian Prasser
+ */
+public class DataManagerCache {
+
+    /**
+     * Structures derived from a dataset
+     *
+     * @author Fabian Prasser
+     */
+    static class Entry {
+
+        /** The domain shares */
+        private DomainShare[]         shares;
+
+        /** The logarithms of the domain shares */
+        private DomainShareLogarithms shareLogarithms;
+
+        /**
+         * Returns the domain shares, null if there are none
+         * @return
+         */
+        synchronized DomainShare[] getDomainShares() {
+            return shares;
+        }
+
+        /**
+         * Returns the logarithms of the domain shares, null if there are none
+         * @return
+         */
+        synchronized DomainShareLogarithms getDomainShareLogarithms() {
+            return shareLogarithms;
+        }
+
+        /**
+         * Stores the domain shares
+         * @param shares
+         */
+        synchronized void setDomainShares(DomainShare[] shares) {
+            this.shares = shares;
+        }
+
+        /**
+         * Stores the logarithms of the domain shares
+         * @param logarithms
+         */
+        synchronized void setDomainShareLogarithms(DomainShareLogarithms logarithms) {
+            this.shareLogarithms = logarithms;
+        }
+    }
+
+    /**
+     * Key of an entry
+     *
+     * @author Fabian Prasser
+     */
+    private static class Key {
+
+        /** The dictionary of each attribute */
+        private final String[][] dictionary;
+
+        /** The encoded hierarchy of each attribute */
+        private final int[][][]  hierarchies;
+
+        /** The hierarchy builder of each attribute, may contain null */
+        private final Object[]   builders;
+
+        /** The hash code */
+        private final int        hash;
+
+        /**
+         * Creates a new instance
+         * @param dictionary
+         * @param hierarchies
+         * @param builders
+         */
+        private Key(String[][] dictionary, int[][][] hierarchies, Object[] builders) {
+            this.dictionary = dictionary;
+            this.hierarchies = hierarchies;
+            this.builders = builders;
+            this.hash = 31 * Arrays.deepHashCode(hierarchies) + Arrays.deepHashCode(dictionary);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash &&
+                   Arrays.equals(builders, other.builders) &&
+                   Arrays.deepEquals(hierarchies, other.hierarchies) &&
+                   Arrays.deepEquals(dictionary, other.dictionary);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** The entries */
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /**
+     * Creates a new instance
+     * @param capacity The maximal number of datasets
+     */
+    public DataManagerCache(final int capacity) {
+        if (capacity <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = -2315036395446716741L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Removes all entries
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the number of entries
+     * @return
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the entry for the given hierarchies, which is created if there is none. The arrays
+     * must not be modified afterwards.
+     * @param dictionary The dictionary of each attribute
+     * @param hierarchies The encoded hierarchy of each attribute
+     * @param builders The hierarchy builder of each attribute, may contain null
+     * @return
+     */
+    synchronized Entry getEntry(String[][] dictionary, int[][][] hierarchies, Object[] builders) {
+        Key key = new Key(dictionary, hierarchies, builders);
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            this.entries.put(key, entry);
+        }
+        return entry;
+    }
+}
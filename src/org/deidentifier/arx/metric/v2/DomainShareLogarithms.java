@@ -0,0 +1,137 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.metric.v2;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+
+/**
+ * Precomputed logarithms of domain shares. For each attribute, a flat table stores log10(share)
+ * for all values that occur on each level of the generalization hierarchy, indexed by
+ * level * width + value. Summing up logarithms instead of multiplying shares avoids underflows.
+ * Additionally, the minimal logarithm of each level is stored, which provides bounds that
+ * do not depend on the equivalence classes induced by a transformation.
+ *
+ * @author Fabian Prasser
+ */
+public class DomainShareLogarithms implements Serializable {
+
+    /** SVUID */
+    private static final long serialVersionUID = 4410815298214734628L;
+
+    /** The logarithms for each attribute, indexed by level * width + value */
+    private final double[][]  tables;
+
+    /** The number of values in each table row */
+    private final int[]       widths;
+
+    /** The minimal logarithm on each level of each attribute */
+    private final double[][]  minima;
+
+    /**
+     * Creates a new instance
+     *
+     * @param shares
+     * @param hierarchies
+     */
+    public DomainShareLogarithms(DomainShare[] shares, GeneralizationHierarchy[] hierarchies) {
+
+        this.tables = new double[shares.length][];
+        this.widths = new int[shares.length];
+        this.minima = new double[shares.length][];
+        for (int dimension = 0; dimension < shares.length; dimension++) {
+
+            // Determine size
+            int[][] hierarchy = hierarchies[dimension].getArray();
+            int levels = hierarchy.length == 0 ? 0 : hierarchy[0].length;
+            int width = 0;
+            for (int[] row : hierarchy) {
+                for (int value : row) {
+                    width = Math.max(width, value + 1);
+                }
+            }
+
+            // Compute the logarithm of each value on each level
+            double[] table = new double[levels * width];
+            double[] minimum = new double[levels];
+            Arrays.fill(minimum, Double.POSITIVE_INFINITY);
+            for (int[] row : hierarchy) {
+                for (int level = 0; level < row.length; level++) {
+                    double logarithm = Math.log10(shares[dimension].getShare(row[level], level));
+                    table[level * width + row[level]] = logarithm;
+                    minimum[level] = Math.min(minimum[level], logarithm);
+                }
+            }
+            this.tables[dimension] = table;
+            this.widths[dimension] = width;
+            this.minima[dimension] = minimum;
+        }
+    }
+
+    /**
+     * Adds the logarithms of the shares of the given values on the given level of the given
+     * attribute to the elements of the result within the given range
+     *
+     * @param dimension
+     * @param level
+     * @param values
+     * @param result
+     * @param from inclusive
+     * @param to exclusive
+     */
+    public void addLogShares(int dimension, int level, int[] values, double[] result, int from, int to) {
+        double[] table = tables[dimension];
+        int offset = level * widths[dimension];
+        for (int i = from; i < to; i++) {
+            result[i] += table[offset + values[i]];
+        }
+    }
+
+    /**
+     * Returns the sum of the minimal logarithms of the shares on the given levels. As the shares of
+     * generalized values are not smaller than the shares of the values that they cover, the result
+     * does not decrease when the levels are increased.
+     *
+     * @param generalization
+     * @return
+     */
+    public double getMinimalLogShare(int[] generalization) {
+        double result = 0d;
+        for (int dimension = 0; dimension < minima.length; dimension++) {
+            result += minima[dimension][generalization[dimension]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sum of the logarithms of the shares of the given generalized values
+     *
+     * @param key
+     * @param generalization
+     * @return
+     */
+    public double getLogShare(int[] key, int[] generalization) {
+        double result = 0d;
+        for (int dimension = 0; dimension < tables.length; dimension++) {
+            result += tables[dimension][generalization[dimension] * widths[dimension] + key[dimension]];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.metric.v2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+
+/**
+ * Evaluates the entropy-based information loss of all equivalence classes at once. The keys, counts
+ * and outlier flags of the classes are copied into primitive column arrays, which are then processed
+ * attribute by attribute in tight loops. The arrays are reused between evaluations and only grow.
+ * Large batches may be evaluated in parallel on a fork-join pool. As the loss of each class is
+ * computed independently and sums are built sequentially by the caller, the results are identical
+ * to a sequential evaluation.
+ *
+ * @author Fabian Prasser
+ */
+class EntropyBasedInformationLossBatch {
+
+    /**
+     * Evaluates a range of classes, splitting it into chunks
+     *
+     * @author Fabian Prasser
+     */
+    private class Task extends RecursiveAction {
+
+        /** SVUID */
+        private static final long           serialVersionUID = -1385046423547235478L;
+
+        /** The logarithms */
+        private final DomainShareLogarithms logarithms;
+
+        /** The generalization */
+        private final int[]                 generalization;
+
+        /** MaxIL */
+        private final double                maxIL;
+
+        /** Start index, inclusive */
+        private final int                   from;
+
+        /** End index, exclusive */
+        private final int                   to;
+
+        /**
+         * Creates a new instance
+         * @param logarithms
+         * @param generalization
+         * @param maxIL
+         * @param from
+         * @param to
+         */
+        private Task(DomainShareLogarithms logarithms, int[] generalization, double maxIL, int from, int to) {
+            this.logarithms = logarithms;
+            this.generalization = generalization;
+            this.maxIL = maxIL;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                evaluate(logarithms, generalization, maxIL, from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Task(logarithms, generalization, maxIL, from, mid),
+                          new Task(logarithms, generalization, maxIL, mid, to));
+            }
+        }
+    }
+
+    /** Initial capacity */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Number of classes evaluated by a single task */
+    private static final int CHUNK_SIZE       = 8192;
+
+    /** The number of classes */
+    private int              size;
+
+    /** The number of records in each class */
+    private int[]            counts;
+
+    /** Whether each class is not an outlier */
+    private boolean[]        notOutliers;
+
+    /** The keys of the classes, one column per attribute */
+    private int[][]          keys;
+
+    /** The information loss of a single record of each class */
+    private double[]         losses;
+
+    /**
+     * Creates a new instance
+     */
+    EntropyBasedInformationLossBatch() {
+        this.counts = new int[INITIAL_CAPACITY];
+        this.notOutliers = new boolean[INITIAL_CAPACITY];
+        this.keys = new int[0][];
+        this.losses = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Evaluates the information loss of a single record of each class
+     *
+     * @param logarithms
+     * @param generalization
+     * @param maxIL
+     * @param pool Pool for parallel evaluation, may be null
+     * @param threshold Number of classes above which the pool is used
+     */
+    void evaluate(DomainShareLogarithms logarithms, int[] generalization, double maxIL, ForkJoinPool pool, int threshold) {
+        if (pool != null && size > threshold) {
+            pool.invoke(new Task(logarithms, generalization, maxIL, 0, size));
+        } else {
+            evaluate(logarithms, generalization, maxIL, 0, size);
+        }
+    }
+
+    /**
+     * Evaluates the information loss of a single record of each class within the given range
+     *
+     * @param logarithms
+     * @param generalization
+     * @param maxIL
+     * @param from inclusive
+     * @param to exclusive
+     */
+    private void evaluate(DomainShareLogarithms logarithms, int[] generalization, double maxIL, int from, int to) {
+
+        // Sum up logarithms, attribute by attribute
+        for (int i = from; i < to; i++) {
+            losses[i] = 0d;
+        }
+        for (int dimension = 0; dimension < keys.length; dimension++) {
+            logarithms.addLogShares(dimension, generalization[dimension], keys[dimension], losses, from, to);
+        }
+
+        // Finalize
+        for (int i = from; i < to; i++) {
+            losses[i] = MetricSDNMEntropyBasedInformationLoss.normalize(losses[i] / maxIL + 1d);
+        }
+    }
+
+    /**
+     * Returns the number of records in the given class
+     *
+     * @param index
+     * @return
+     */
+    int getCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Returns the information loss of a single record of the given class
+     *
+     * @param index
+     * @return
+     */
+    double getLoss(int index) {
+        return losses[index];
+    }
+
+    /**
+     * Returns the number of classes
+     *
+     * @return
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns whether the given class is not an outlier
+     *
+     * @param index
+     * @return
+     */
+    boolean isNotOutlier(int index) {
+        return notOutliers[index];
+    }
+
+    /**
+     * Copies all classes with a count larger than zero
+     *
+     * @param groupify
+     * @param dimensions
+     */
+    void load(HashGroupify groupify, int dimensions) {
+
+        // Prepare
+        if (keys.length != dimensions) {
+            keys = new int[dimensions][counts.length];
+        }
+        size = 0;
+
+        // Copy
+        HashGroupifyEntry entry = groupify.getFirstEquivalenceClass();
+        while (entry != null) {
+            if (entry.count > 0) {
+                if (size == counts.length) {
+                    grow();
+                }
+                counts[size] = entry.count;
+                notOutliers[size] = entry.isNotOutlier;
+                for (int dimension = 0; dimension < dimensions; dimension++) {
+                    keys[dimension][size] = entry.key[dimension];
+                }
+                size++;
+            }
+            entry = entry.nextOrdered;
+        }
+    }
+
+    /**
+     * Doubles the capacity
+     */
+    private void grow() {
+        int capacity = counts.length << 1;
+        int[] _counts = new int[capacity];
+        boolean[] _notOutliers = new boolean[capacity];
+        double[] _losses = new double[capacity];
+        System.arraycopy(counts, 0, _counts, 0, size);
+        System.arraycopy(notOutliers, 0, _notOutliers, 0, size);
+        for (int dimension = 0; dimension < keys.length; dimension++) {
+            int[] _keys = new int[capacity];
+            System.arraycopy(keys[dimension], 0, _keys, 0, size);
+            keys[dimension] = _keys;
+        }
+        counts = _counts;
+        notOutliers = _notOutliers;
+        losses = _losses;
+    }
+}
@@ -17,8 +17,10 @@
 
 package org.deidentifier.arx.metric.v2;
 
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
+import org.deidentifier.arx.framework.check.TransformationCache;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
@@ -44,11 +46,17 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
     /** SVUID*/
     private static final long serialVersionUID = -2443537745262162075L;
 
-    /** Optimize */
-    public static boolean     OPTIMIZED        = true;
+    /** Buffers for batch evaluation for each thread */
+    private static final ThreadLocal<EntropyBasedInformationLossBatch> BATCH = new ThreadLocal<EntropyBasedInformationLossBatch>() {
+        @Override
+        protected EntropyBasedInformationLossBatch initialValue() {
+            return new EntropyBasedInformationLossBatch();
+        }
+    };
 
     /**
      * Implements the entropy-based IL model. Ignores record suppression. Returns the loss for exactly one record.
+     * Uses simplified expressions.
      * @param transformation
      * @param entry
      * @param shares
@@ -63,6 +71,50 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
                                                         DistributionAggregateFunction[] microaggregationFunctions,
                                                         int microaggregationStartIndex,
                                                         double maxIL) {
+        return getEntropyBasedInformationLoss(transformation, entry, shares, microaggregationFunctions, microaggregationStartIndex, maxIL, true);
+    }
+
+    /**
+     * Implements the entropy-based IL model. Ignores record suppression. Returns the loss for exactly one record.
+     * @param transformation
+     * @param entry
+     * @param shares
+     * @param functions
+     * @param microaggregationStartIndex
+     * @param maxIL
+     * @param optimized Whether simplified expressions should be used
+     * @return
+     */
+    public static double getEntropyBasedInformationLoss(Transformation transformation, 
+                                                        HashGroupifyEntry entry,
+                                                        DomainShare[] shares,
+                                                        DistributionAggregateFunction[] microaggregationFunctions,
+                                                        int microaggregationStartIndex,
+                                                        double maxIL,
+                                                        boolean optimized) {
+        return getEntropyBasedInformationLoss(transformation, entry, shares, null, microaggregationFunctions, microaggregationStartIndex, maxIL, optimized);
+    }
+
+    /**
+     * Implements the entropy-based IL model. Ignores record suppression. Returns the loss for exactly one record.
+     * @param transformation
+     * @param entry
+     * @param shares
+     * @param logarithms Precomputed logarithms of the shares, may be null
+     * @param functions
+     * @param microaggregationStartIndex
+     * @param maxIL
+     * @param optimized Whether simplified expressions should be used
+     * @return
+     */
+    public static double getEntropyBasedInformationLoss(Transformation transformation, 
+                                                        HashGroupifyEntry entry,
+                                                        DomainShare[] shares,
+                                                        DomainShareLogarithms logarithms,
+                                                        DistributionAggregateFunction[] microaggregationFunctions,
+                                                        int microaggregationStartIndex,
+                                                        double maxIL,
+                                                        boolean optimized) {
 
         // We transform the formula, to make evaluating it more efficient.
         //
@@ -86,11 +138,24 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
         // IL = log(share_1 * share_2 * ... * share_n) / maxIL + 1
         //
         // For attributes transformed with microaggregation, we set share_i to 1/#distinct-values-in-eq-class and size_i to the #distinct-values-in-dataset
+        //
+        // With precomputed logarithms, the product is evaluated as a sum: log(share_1) + log(share_2) + ... + log(share_n)
 
         
         double result = 0d;
         
-        if (OPTIMIZED) {
+        if (optimized && logarithms != null) {
+
+            double infoLoss = logarithms.getLogShare(entry.key, transformation.getGeneralization());
+            if (microaggregationFunctions != null) {
+                for (int dimension=0; dimension<microaggregationFunctions.length; dimension++){
+                    infoLoss += Math.log10(microaggregationFunctions[dimension].getInformationLoss(entry.distributions[microaggregationStartIndex + dimension]));
+                }
+            }
+
+            // Finalize
+            result = infoLoss / maxIL + 1d;
+        } else if (optimized) {
             
             double infoLoss = 1d;
             
@@ -126,17 +191,8 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
             result /= maxIL;
         }
         
-        // TODO: Floating point operations suck
-        if (Double.isNaN(result) || result <= -0.001d || result >= +1.001d) {
-            throw new IllegalStateException("Value (" + result + ") out of range [0,1]");
-        }
-        
-        // Fix rounding problems
-        result = result < 0d ? 0d : result;
-        result = result > 1d ? 1d : result;
-        
         // Return
-        return result;
+        return normalize(result);
     }
 
     /**
@@ -158,12 +214,46 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
         return maxIL;
     }
 
+    /**
+     * Checks that the given information loss of a record is within [0,1] and fixes rounding problems.
+     * Used by both the per-class and the batch evaluation.
+     * @param result
+     * @return
+     */
+    static double normalize(double result) {
+
+        // TODO: Floating point operations suck
+        if (Double.isNaN(result) || result <= -0.001d || result >= +1.001d) {
+            throw new IllegalStateException("Value (" + result + ") out of range [0,1]");
+        }
+        
+        // Fix rounding problems
+        result = result < 0d ? 0d : result;
+        result = result > 1d ? 1d : result;
+        return result;
+    }
+
     /** Domain shares for each dimension. */
     private DomainShare[]                     shares;
 
+    /** Logarithms of the domain shares */
+    private DomainShareLogarithms             logarithms;
+
     /** MaxIL */
     private double                            maxIL;
 
+    /** Whether simplified expressions are used */
+    private boolean                           optimized = true;
+
+    /** The number of classes above which batches are evaluated in parallel */
+    private int                               parallelEvaluationThreshold = Integer.MAX_VALUE;
+
+    /** Cache of the sum of the information loss of all classes, shared between runs, null if disabled or not applicable */
+    private transient TransformationCache     cache;
+
+    /** Identifier of the data and the parameters within the cache */
+    private int                               dataset;
+
     /**
      * Creates a new instance. Default constructor which treats all transformation methods equally.
      */
@@ -239,26 +329,48 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
         // Prepare
         double real = 0;
         double bound = 0;
+        double sum = 0;
         double gFactor = super.getGeneralizationFactor();
         double sFactor = super.getSuppressionFactor();
         HashGroupifyEntry entry = g.getFirstEquivalenceClass();
         DistributionAggregateFunction[] microaggregationFunctions = super.getMicroaggregationFunctions();
         int microaggregationStartIndex = super.getMicroaggregationStartIndex();
 
+        // Compute all classes at once, if possible
+        if (isBatchEvaluationPossible(microaggregationFunctions)) {
+            EntropyBasedInformationLossBatch batch = evaluate(transformation, g);
+            for (int i = 0; i < batch.getSize(); i++) {
+                int count = batch.getCount(i);
+                double loss = count * batch.getLoss(i);
+                real += batch.isNotOutlier(i) ? gFactor * loss : sFactor * count;
+                bound += gFactor * loss;
+                sum += loss;
+            }
+            entry = null;
+        }
+
         // Compute
         while (entry != null) {
             if (entry.count > 0) {
-                double loss = entry.count * getEntropyBasedInformationLoss(  transformation,
-                                                                             entry,
-                                                                             shares,
-                                                                             microaggregationFunctions,
-                                                                             microaggregationStartIndex,
-                                                                             maxIL);
+                double loss = entry.count * getEntropyBasedInformationLoss(transformation,
+                                                                           entry,
+                                                                           shares,
+                                                                           logarithms,
+                                                                           microaggregationFunctions,
+                                                                           microaggregationStartIndex,
+                                                                           maxIL,
+                                                                           optimized);
                 real += entry.isNotOutlier ? gFactor * loss : sFactor * entry.count;
                 bound += gFactor * loss;
+                sum += loss;
             }
             entry = entry.nextOrdered;
         }
+
+        // Store for future runs
+        if (cache != null) {
+            cache.put(dataset, transformation.getGeneralization(), sum);
+        }
         
         // Return
         return super.createInformationLoss(real, bound);
@@ -275,16 +387,36 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
         double bound = entry.count * getEntropyBasedInformationLoss(  transformation,
                                                                       entry,
                                                                       shares,
+                                                                      logarithms,
                                                                       microaggregationFunctions,
                                                                       microaggregationStartIndex,
-                                                                      maxIL);
+                                                                      maxIL,
+                                                                      optimized);
         double loss = entry.isNotOutlier ? gFactor * bound : sFactor * entry.count;
         return super.createInformationLoss(loss, gFactor * bound);
     }
 
     @Override
     protected ILSingleDimensional getLowerBoundInternal(Transformation transformation) {
-        return null;
+
+        // Use the classes of a previous run, if any
+        if (cache != null) {
+            Double sum = cache.get(dataset, transformation.getGeneralization());
+            if (sum != null) {
+                return new ILSingleDimensional(super.getGeneralizationFactor() * sum);
+            }
+        }
+
+        // Otherwise, each record has at least the loss implied by the smallest shares on the given levels
+        if (logarithms == null) {
+            return null;
+        }
+        double minimum = logarithms.getMinimalLogShare(transformation.getGeneralization());
+        for (int size : super.getMicroaggregationDomainSizes()) {
+            minimum -= Math.log10(size);
+        }
+        double loss = Math.max(0d, minimum / maxIL + 1d);
+        return new ILSingleDimensional(super.getGeneralizationFactor() * getNumTuples() * loss);
     }
 
     @Override
@@ -293,18 +425,40 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
 
         // Compute
         double bound = 0;
+        double sum = 0;
         double gFactor = super.getGeneralizationFactor();
         HashGroupifyEntry entry = groupify.getFirstEquivalenceClass();
+
+        // Compute all classes at once, if possible
+        if (isBatchEvaluationPossible(null)) {
+            EntropyBasedInformationLossBatch batch = evaluate(transformation, groupify);
+            for (int i = 0; i < batch.getSize(); i++) {
+                double loss = batch.getCount(i) * batch.getLoss(i);
+                bound += gFactor * loss;
+                sum += loss;
+            }
+            entry = null;
+        }
+
         while (entry != null) {
             
-            bound += entry.count == 0 ? 0d : gFactor * entry.count * getEntropyBasedInformationLoss(  transformation,
-                                                                                                      entry,
-                                                                                                      shares,
-                                                                                                      null,
-                                                                                                      0,
-                                                                                                      maxIL);
+            double loss = entry.count == 0 ? 0d : entry.count * getEntropyBasedInformationLoss(  transformation,
+                                                                                                 entry,
+                                                                                                 shares,
+                                                                                                 logarithms,
+                                                                                                 null,
+                                                                                                 0,
+                                                                                                 maxIL,
+                                                                                                 optimized);
+            bound += gFactor * loss;
+            sum += loss;
             entry = entry.nextOrdered;
         }
+
+        // Store for future runs
+        if (cache != null) {
+            cache.put(dataset, transformation.getGeneralization(), sum);
+        }
         
         // Return
         return new ILSingleDimensional(bound);
@@ -331,8 +485,61 @@ public class MetricSDNMEntropyBasedInformationLoss extends AbstractMetricSingleD
 
         // Compute domain shares
         this.shares =  manager.getDomainShares();
+        this.logarithms = manager.getDomainShareLogarithms();
 
         // Calculate MaxIL
         this.maxIL = getMaximalEntropyBasedInformationLoss(this.shares, super.getMicroaggregationDomainSizes());
+
+        // Store configuration
+        this.optimized = config.isExpressionSimplificationEnabled();
+        this.parallelEvaluationThreshold = config.getParallelEvaluationThreshold();
+        this.cache = null;
+
+        // Sums are only shared without microaggregation, as they do not cover microaggregated attributes
+        TransformationCache cache = config.getTransformationCache();
+        DistributionAggregateFunction[] microaggregationFunctions = super.getMicroaggregationFunctions();
+        if (cache != null && (microaggregationFunctions == null || microaggregationFunctions.length == 0)) {
+            int[][][] arrays = new int[hierarchies.length][][];
+            for (int i = 0; i < arrays.length; i++) {
+                arrays[i] = hierarchies[i].getArray();
+            }
+            this.cache = cache;
+            this.dataset = cache.getDataset(manager.getFingerprint(),
+                                            manager.getDataGeneralized().getArray(),
+                                            arrays,
+                                            manager.getSubsetRows(),
+                                            this.maxIL,
+                                            this.optimized,
+                                            this.logarithms != null);
+        }
+    }
+
+    /**
+     * Evaluates the information loss of all classes in the given groupify operator
+     * 
+     * @param transformation
+     * @param groupify
+     * @return
+     */
+    private EntropyBasedInformationLossBatch evaluate(Transformation transformation, HashGroupify groupify) {
+        EntropyBasedInformationLossBatch batch = BATCH.get();
+        batch.load(groupify, shares.length);
+        batch.evaluate(logarithms,
+                       transformation.getGeneralization(),
+                       maxIL,
+                       batch.getSize() > parallelEvaluationThreshold ? DataManager.getPool() : null,
+                       parallelEvaluationThreshold);
+        return batch;
+    }
+
+    /**
+     * Returns whether all classes can be evaluated at once, which requires simplified expressions,
+     * precomputed logarithms and no microaggregation
+     * 
+     * @param microaggregationFunctions
+     * @return
+     */
+    private boolean isBatchEvaluationPossible(DistributionAggregateFunction[] microaggregationFunctions) {
+        return optimized && logarithms != null && (microaggregationFunctions == null || microaggregationFunctions.length == 0);
     }
 }